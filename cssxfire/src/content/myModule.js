@@ -43,9 +43,109 @@ Firebug.MyModule = FBL.extend(Firebug.Module,
      * @param state the state
      */
     initContext: function(context, state) {
+        this.styleSheets = {};
         this.sendEvent("refresh");
     },
 
+    /**
+     * Called from Firebug when a page has been loaded. Reports each stylesheet of the page, with its selectors,
+     * letting the IDE prepare for changes to them. The original source of each stylesheet is only fetched up front
+     * if matching stylesheets by content is enabled, and the stylesheet is then reported with the hash of its content
+     * once fetched. Otherwise the source is fetched on the first change to it.
+     * @param context the page context
+     */
+    loadedContext: function(context) {
+        var styleSheets = [];
+        try {
+            this.collectStyleSheets(context.window.document.styleSheets, styleSheets);
+        } catch (e) {
+            return;
+        }
+        var matchContent = this.isMatchContent();
+        for (var i = 0; i < styleSheets.length; i++) {
+            var selectors = {list: [], length: 0};
+            this.collectSelectors(styleSheets[i], selectors);
+            if (matchContent) {
+                this.loadStyleSheet(styleSheets[i].href, this.createLoadEventSender(styleSheets[i].href, selectors.list));
+            } else {
+                this.sendLoadEvent(styleSheets[i].href, selectors.list, null);
+            }
+        }
+    },
+
+    /**
+     * Creates a callback for loadStyleSheet, reporting a stylesheet with the hash of its content
+     * @param href the stylesheet href
+     * @param selectors the selectors of the stylesheet
+     * @return the callback
+     */
+    createLoadEventSender: function(href, selectors) {
+        var self = this;
+        return function(styleSheet) {
+            self.sendLoadEvent(href, selectors, styleSheet ? styleSheet.hash : null);
+        };
+    },
+
+    /**
+     * Max length of the selectors reported for a stylesheet, keeps the request line of the load event short
+     */
+    maxSelectorsLength: 4000,
+
+    /**
+     * Collects the external stylesheets of a list, including those imported.
+     * @param styleSheetList the stylesheets
+     * @param result the array to add the stylesheets to
+     */
+    collectStyleSheets: function(styleSheetList, result) {
+        for (var i = 0; i < styleSheetList.length; i++) {
+            var styleSheet = styleSheetList[i];
+            if (!styleSheet || !styleSheet.href) {
+                continue;
+            }
+            result.push(styleSheet);
+            var rules;
+            try {
+                rules = styleSheet.cssRules;
+            } catch (e) {
+                // rules of other origins are not accessible
+                continue;
+            }
+            for (var j = 0; j < rules.length; j++) {
+                if (rules[j].type == CSSRule.IMPORT_RULE && rules[j].styleSheet) {
+                    this.collectStyleSheets([rules[j].styleSheet], result);
+                }
+            }
+        }
+    },
+
+    /**
+     * Collects the selectors of a stylesheet or @media rule, up to maxSelectorsLength characters in total.
+     * @param ruleContainer the stylesheet or @media rule
+     * @param result the selectors collected so far, and their total length
+     * @return false if the max length was reached
+     */
+    collectSelectors: function(ruleContainer, result) {
+        var rules;
+        try {
+            rules = ruleContainer.cssRules;
+        } catch (e) {
+            return true;
+        }
+        for (var i = 0; i < rules.length; i++) {
+            var rule = rules[i];
+            if (rule.type == CSSRule.STYLE_RULE) {
+                result.length += rule.selectorText.length + 1;
+                if (result.length > this.maxSelectorsLength) {
+                    return false;
+                }
+                result.list.push(rule.selectorText);
+            } else if (rule.type == CSSRule.MEDIA_RULE && !this.collectSelectors(rule, result)) {
+                return false;
+            }
+        }
+        return true;
+    },
+
     /**
      * The registered listener function for property change. Receives callbacks from Firebug CSS editor
      * @param style
@@ -60,7 +160,7 @@ Firebug.MyModule = FBL.extend(Firebug.Module,
     onCSSSetProperty: function(style, propName, propValue, propPriority, prevValue, prevPriority, rule, baseText) {
         if (propValue != prevValue || propPriority != prevPriority) {
             // if value has changed, send change to the IDE
-            this.send(this.getMediaText(rule), this.getHref(rule), rule.selectorText, propName, propValue, propPriority, false);
+            this.send(this.getMediaText(rule), this.getHref(rule), this.getContentHash(rule), this.getRuleHash(rule), rule.selectorText, propName, propValue, propPriority, false);
         }
     },
 
@@ -74,7 +174,7 @@ Firebug.MyModule = FBL.extend(Firebug.Module,
      * @param baseText
      */
     onCSSRemoveProperty: function(style, propName, prevValue, prevPriority, rule, baseText) {
-        this.send(this.getMediaText(rule), this.getHref(rule), rule.selectorText, propName, prevValue, prevPriority, true);
+        this.send(this.getMediaText(rule), this.getHref(rule), this.getContentHash(rule), this.getRuleHash(rule), rule.selectorText, propName, prevValue, prevPriority, true);
     },
 
     /**
@@ -105,6 +205,161 @@ Firebug.MyModule = FBL.extend(Firebug.Module,
         return rule.parentStyleSheet.href;
     },
 
+    /**
+     * Check if stylesheets should be matched to project files by their content, which requires fetching the
+     * original source of every stylesheet on the page.
+     * @return the value of the matchContent preference
+     */
+    isMatchContent: function() {
+        try {
+            var prefManager = Components.classes["@mozilla.org/preferences-service;1"].getService(Components.interfaces.nsIPrefBranch);
+            return prefManager.getBoolPref("extensions.cssxfire@cssxfire.matchContent");
+        } catch (e) {
+            return false;
+        }
+    },
+
+    /**
+     * Original source and content hash of the stylesheets on the current page, by href. The value is null while
+     * the stylesheet is being fetched, or if it could not be fetched.
+     */
+    styleSheets: {},
+
+    /**
+     * Starts fetching the original source of a stylesheet, unless already fetched or being fetched for the
+     * current page. The stylesheet is normally served from the browser cache.
+     * @param href the stylesheet href
+     * @param callback optional function called with the fetched source and hash, or with null if the source could
+     *                 not be fetched or is still being fetched by an earlier call
+     */
+    loadStyleSheet: function(href, callback) {
+        var styleSheets = this.styleSheets;
+        if (href in styleSheets) {
+            if (callback) {
+                callback(styleSheets[href]);
+            }
+            return;
+        }
+        styleSheets[href] = null;
+        var self = this;
+        var done = function() {
+            if (callback) {
+                callback(styleSheets[href]);
+            }
+        };
+        try {
+            var httpRequest = new XMLHttpRequest();
+            httpRequest.open("GET", href, true);
+            httpRequest.onload = function() {
+                if (httpRequest.status == 200 || httpRequest.status == 0) {
+                    styleSheets[href] = {text: httpRequest.responseText, hash: self.hash(httpRequest.responseText)};
+                }
+                done();
+            };
+            httpRequest.onerror = done;
+            httpRequest.send(null);
+        } catch (e) {
+            // no source, the IDE falls back to searching
+            done();
+        }
+    },
+
+    /**
+     * Get the original source of the stylesheet containing the rule. Never blocks; if the source is not yet
+     * available it is fetched in the background for later changes.
+     * @param rule the css rule
+     * @return an object with the source text and its hash, or null if the stylesheet is inline or not (yet) fetched
+     */
+    getStyleSheet: function(rule) {
+        var href = rule.parentStyleSheet && rule.parentStyleSheet.href;
+        if (!href) {
+            return null;
+        }
+        this.loadStyleSheet(href);
+        return this.styleSheets[href];
+    },
+
+    /**
+     * Get a hash of the content of the stylesheet containing the rule, letting the IDE find the project file
+     * with the same content.
+     * @param rule the css rule
+     * @return the hash, or null if the stylesheet is inline or not (yet) fetched
+     */
+    getContentHash: function(rule) {
+        var styleSheet = this.getStyleSheet(rule);
+        return styleSheet ? styleSheet.hash : null;
+    },
+
+    /**
+     * Get a hash of the declarations of the rule as written in the original stylesheet, letting the IDE find the
+     * rule without searching for the selector. The browser's own serialization of the rule is not used since it
+     * expands shorthands and normalizes values.
+     * The rule is located by its line and, where the browser reports it, its column. Without a column the hash is
+     * only computed if the line holds a single rule, since minified stylesheets have all rules on one line.
+     * @param rule the css rule
+     * @return the hash, or null if the rule could not be found in the stylesheet source
+     */
+    getRuleHash: function(rule) {
+        var styleSheet = this.getStyleSheet(rule);
+        if (!styleSheet) {
+            return null;
+        }
+        var line, column = 0;
+        try {
+            var domUtils = Components.classes["@mozilla.org/inspector/dom-utils;1"].getService(Components.interfaces.inIDOMUtils);
+            line = domUtils.getRuleLine(rule);
+            if (domUtils.getRuleColumn) {
+                column = domUtils.getRuleColumn(rule);
+            }
+        } catch (e) {
+            return null;
+        }
+        var text = styleSheet.text;
+        var start = 0;
+        for (var i = 1; i < line; i++) {
+            start = text.indexOf("\n", start);
+            if (start == -1) {
+                return null;
+            }
+            start++;
+        }
+        if (column > 0) {
+            start += column - 1;
+        }
+        var open = text.indexOf("{", start);
+        var close = open != -1 ? text.indexOf("}", open) : -1;
+        if (close == -1) {
+            return null;
+        }
+        if (column <= 0) {
+            var end = text.indexOf("\n", start);
+            var next = text.indexOf("{", close);
+            if (next != -1 && (end == -1 || next < end)) {
+                // more than one rule on the line, cannot tell which one
+                return null;
+            }
+        }
+        return this.hash(text.substring(open + 1, close));
+    },
+
+    /**
+     * 32 bit FNV-1a hash of the text, leaving out all whitespace.
+     * Must be kept in line with StringUtils.contentHash in the IDE plugin.
+     * @param text the stylesheet text
+     * @return the hash as 8 hex digits
+     */
+    hash: function(text) {
+        var hash = 0x811c9dc5;
+        for (var i = 0; i < text.length; i++) {
+            var c = text.charCodeAt(i);
+            if (c == 32 || c == 9 || c == 10 || c == 13 || c == 12) {
+                continue;
+            }
+            hash = Math.imul(hash ^ c, 0x01000193) >>> 0;
+        }
+        return ("0000000" + hash.toString(16)).slice(-8);
+    },
+
     timerId: null,
 
     /**
@@ -119,17 +374,20 @@ Firebug.MyModule = FBL.extend(Firebug.Module,
      * Sends a change to the local web server
      * @param media media query text (null means not specified)
      * @param href css file href (null means inline)
+     * @param hash content hash of the css file (null means unknown)
+     * @param ruleHash hash of the rule's original declarations (null means unknown)
      * @param selector the selector name
      * @param property the property name
      * @param value the value
      * @param important the priority
      * @param deleted if the property was deleted or not
      */
-    send: function(media, href, selector, property, value, important, deleted) {
+    send: function(media, href, hash, ruleHash, selector, property, value, important, deleted) {
         var querystring = "http://" + this.getIdeAddress() + "/?selector=" + this.encode(selector) + "&property="
                 + this.encode(property) + "&value=" + this.encode(value) + "&important=" + (important ? "true" : "false")
                 + "&deleted=" + deleted + "&href=" + this.encode(href || window.content.location.href)
-                + "&media=" + this.encode(media || "");
+                + "&media=" + this.encode(media || "") + "&hash=" + this.encode(hash || "")
+                + "&rule=" + this.encode(ruleHash || "");
         var httpRequest = new XMLHttpRequest();
         httpRequest.open("GET", querystring, true);
         // send event in 0.5 seconds from now
@@ -158,6 +416,21 @@ Firebug.MyModule = FBL.extend(Firebug.Module,
         httpRequest.send(null);
     },
 
+    /**
+     * Sends a stylesheet loaded by the page to the local web server
+     * @param href the stylesheet href
+     * @param selectors the selectors of the stylesheet
+     * @param hash the hash of the stylesheet content (null means not fetched)
+     */
+    sendLoadEvent: function(href, selectors, hash) {
+        var querystring = "http://" + this.getIdeAddress() + "/?event=load&href=" + this.encode(href)
+                + (hash ? "&hash=" + hash : "")
+                + "&selectors=" + this.encode(selectors.join("\n"));
+        var httpRequest = new XMLHttpRequest();
+        httpRequest.open("GET", querystring, true);
+        httpRequest.send(null);
+    },
+
     /**
      * Get the address of the CSS-X-Fire server (IDE).
      */
@@ -2,3 +2,4 @@
 pref("extensions.cssxfire@cssxfire.description", "chrome://cssxfire/locale/cssxfire.properties");
 pref("extensions.cssxfire@cssxfire.host", "localhost");
 pref("extensions.cssxfire@cssxfire.port", 6776);
+pref("extensions.cssxfire@cssxfire.matchContent", false);
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire;
+
+import com.github.cssxfire.index.MediaQueryIndex;
+import com.github.cssxfire.index.RuleFingerprintIndex;
+import com.github.cssxfire.index.SelectorTokenIndex;
+import com.github.cssxfire.index.StylesheetHashIndex;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.UserDataHolderEx;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.css.CssRuleset;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.ID;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>Warms up the caches used when processing incoming changes, in the background once the project is indexed: the
+ * search scope and route table are compiled, the plugin's indices are brought up to date, and the stylesheets in the
+ * search scope are parsed with the expanded selectors of their rules cached. Without it, the first change from the
+ * browser waits for all of this.</p>
+ * <p>Caches are warmed up once per project, on the first event from the browser, or when the project is opened if
+ * so configured and the CSS-X-Fire server is running. Projects never used with a browser pay nothing.</p>
+ * <p>Each file is processed in its own read action, which is cancelled and restarted whenever a write action is
+ * pending, so the task never blocks write actions, and it can be cancelled from the status bar.</p>
+ */
+public class CacheWarmupActivity implements StartupActivity {
+    private static final Logger LOG = Logger.getInstance(CacheWarmupActivity.class.getName());
+
+    private static final Key<Boolean> STARTED = Key.create("cssxfire.warmUpStarted");
+    private static final String[] EXTENSIONS = {"css", "less", "scss"};
+    private static final List<ID<?, ?>> INDICES = Arrays.asList(StylesheetHashIndex.NAME, RuleFingerprintIndex.NAME,
+            SelectorTokenIndex.NAME, MediaQueryIndex.NAME);
+
+    public void runActivity(@NotNull Project project) {
+        if (CssXFireConnector.getInstance().isInitialized() && CssXFireSettings.getInstance(project).isWarmUpOnOpen()) {
+            start(project);
+        }
+    }
+
+    /**
+     * Starts warming up the caches of a project in the background once it is indexed, unless already started.
+     *
+     * @param project the project
+     */
+    public static void start(@NotNull Project project) {
+        if (!((UserDataHolderEx) project).replace(STARTED, null, Boolean.TRUE)) {
+            return;
+        }
+        DumbService.getInstance(project).runWhenSmart(() -> {
+            if (project.isDisposed()) {
+                return;
+            }
+            new Task.Backgroundable(project, "Warming up CSS-X-Fire caches", true) {
+                @Override
+                public void run(@NotNull ProgressIndicator indicator) {
+                    warmUp(project, indicator);
+                }
+            }.queue();
+        });
+    }
+
+    private static void warmUp(@NotNull Project project, @NotNull ProgressIndicator indicator) {
+        long start = System.currentTimeMillis();
+        DumbService dumbService = DumbService.getInstance(project);
+        indicator.setIndeterminate(true);
+        indicator.setText("Compiling search scope and routes");
+        CssXFireSettings.getInstance(project).getRoutes().getRoutes();
+        GlobalSearchScope scope = dumbService.runReadActionInSmartMode(() -> SearchProcessorCache.getInstance(project).getSearchScope());
+
+        indicator.setText("Updating indices");
+        for (ID<?, ?> index : INDICES) {
+            indicator.checkCanceled();
+            CssUtils.computeWithWriteActionPriority(project, () -> {
+                FileBasedIndex.getInstance().ensureUpToDate(index, project, scope);
+                return null;
+            }, indicator);
+        }
+
+        List<VirtualFile> files = dumbService.runReadActionInSmartMode(() -> {
+            List<VirtualFile> result = new ArrayList<>();
+            for (String extension : EXTENSIONS) {
+                result.addAll(FilenameIndex.getAllFilesByExt(project, extension, scope));
+            }
+            return result;
+        });
+        warmUp(project, files, indicator);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Warmed up " + files.size() + " stylesheets in " + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    /**
+     * Parses stylesheets and caches the expanded selectors of their rules, reporting progress to <i>indicator</i>.
+     *
+     * @param project   the project
+     * @param files     the stylesheets
+     * @param indicator the progress indicator
+     */
+    public static void warmUp(@NotNull Project project, @NotNull Collection<VirtualFile> files, @NotNull ProgressIndicator indicator) {
+        PsiManager psiManager = PsiManager.getInstance(project);
+        indicator.setIndeterminate(false);
+        int count = 0;
+        for (VirtualFile file : files) {
+            indicator.checkCanceled();
+            indicator.setFraction((double) count++ / files.size());
+            indicator.setText("Parsing " + file.getName());
+            CssUtils.computeWithWriteActionPriority(project, () -> {
+                PsiFile psiFile = file.isValid() ? psiManager.findFile(file) : null;
+                if (psiFile != null) {
+                    for (CssRuleset ruleset : PsiTreeUtil.findChildrenOfType(psiFile, CssRuleset.class)) {
+                        ProgressManager.checkCanceled();
+                        CssUtils.getExpandedSelectors(ruleset);
+                    }
+                }
+                return null;
+            }, indicator);
+        }
+        indicator.setFraction(1);
+    }
+}
@@ -16,8 +16,9 @@
 
 package com.github.cssxfire;
 
-import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
 import com.intellij.psi.css.*;
 import com.intellij.psi.search.TextOccurenceProcessor;
 import com.intellij.psi.util.PsiTreeUtil;
@@ -25,21 +26,27 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+/**
+ * Collects the selectors matching a selector reported by Firebug. The processor is thread safe, occurrences may be
+ * processed concurrently.
+ */
 public class CssSelectorSearchProcessor implements TextOccurenceProcessor {
-    private static final String DUMMY = "";
-
-    private final List<CssElement> selectors = new ArrayList<>();
+    private final Queue<SmartPsiElementPointer<CssElement>> selectors = new ConcurrentLinkedQueue<>();
+    @NotNull
+    private final String selector;
     @NotNull
-    private String selector;
+    private final String word;
     @NotNull
-    private String word;
+    private final SelectorChainMatcher matcher;
 
     public CssSelectorSearchProcessor(@NotNull String selector) {
         this.selector = StringUtils.normalizeWhitespace(selector);
         this.word = StringUtils.extractSearchWord(this.selector);
+        this.matcher = new SelectorChainMatcher(this.selector);
     }
 
     /**
@@ -66,7 +73,7 @@ public class CssSelectorSearchProcessor implements TextOccurenceProcessor {
         if (psiElement instanceof CssSelector || psiElement instanceof CssSelectorList) {
             CssElement cssSelector = (CssElement) psiElement;
             if ((!(cssSelector.getParent() instanceof CssSelectorList)) && canBeReference(cssSelector)) {
-                selectors.add(cssSelector);
+                selectors.add(SmartPointerManager.createPointer(cssSelector));
             }
         }
 
@@ -74,135 +81,16 @@ public class CssSelectorSearchProcessor implements TextOccurenceProcessor {
     }
 
     /**
-     * Checks (stringwise) if the given css element could reference the selector to search for. The check is
-     * done by expanding the rule of the given css selector by checking all of its parent elements within the
-     * same file. This allows for nested rules (Less/Sass).
+     * Checks (stringwise) if the given css element could reference the selector to search for. The selector of its
+     * rule is expanded with the selectors of all enclosing rules within the same file. This allows for nested
+     * rules (Less/Sass).
      *
      * @param cssSelector the candidate element
      * @return true if and only if the rule of the given element matches this selector
      */
     private boolean canBeReference(@NotNull CssElement cssSelector) {
-        final List<List<String>> selectorPaths = createSelectorParts(selector);
-
-        boolean complete = CssUtils.processParents(cssSelector, element -> {
-            if (element instanceof CssRuleset) {
-                CssRuleset cssRuleset = (CssRuleset) element;
-                CssSelectorList selectorList = cssRuleset.getSelectorList();
-                if (selectorList == null) {
-                    return false; // abort processing
-                }
-                String selectorText = StringUtils.normalizeWhitespace(selectorList.getText());
-                List<List<String>> comparePaths = createSelectorParts(selectorText);
-
-                for (List<String> comparePath : comparePaths) {
-                    int numToRemove = 0;
-                    for (List<String> selectorPath : selectorPaths) {
-                        if (endsWith(selectorPath, comparePath)) {
-                            numToRemove = comparePath.size();
-                            for (int i = 0; i < numToRemove; i++) {
-                                pop(selectorPath);
-                            }
-                            selectorPath.add(DUMMY); // Add a dummy marker that won't match again
-                        }
-                    }
-                    for (int i = 0; i < numToRemove; i++) {
-                        pop(comparePath);
-                    }
-                }
-
-                if (cleanupSelectorParts(comparePaths)) {
-                    return false;
-                }
-
-                for (List<String> selectorPath : selectorPaths) {
-                    String stack = pop(selectorPath);// Clear dummy markers
-                    if (StringUtil.isNotEmpty(stack)) {
-                        selectorPath.add(DUMMY);
-                        return false;
-                    }
-                }
-                return true;
-            }
-            return true;
-        });
-
-        // Check for loose ends in given selector and in code.
-        if (cleanupSelectorParts(selectorPaths) || !complete) {
-            return false;
-        }
-        return true;
-    }
-
-    /**
-     * Checks if <tt>match</tt> is equal to the tail of <tt>candidate</tt>
-     *
-     * @param candidate the list to test
-     * @param match     the tail to test for
-     * @return <tt>true</tt> if <tt>match</tt> is a tailing sublist of <tt>candidate</tt>,
-     *         given the semantics of <tt>comparator</tt>
-     */
-    private static boolean endsWith(List<String> candidate, List<String> match) {
-        if (candidate.isEmpty() || match.isEmpty() || match.size() > candidate.size()) {
-            return false;
-        }
-        for (int i = 0; i < match.size(); i++) {
-            int cix = candidate.size() - 1 - i;
-            int mix = match.size() - 1 - i;
-
-            String s1 = candidate.get(cix);
-            String s2 = match.get(mix);
-
-            if (!s1.equals(s2)) {
-                if (!(s2.startsWith("&:") && s1.indexOf(':') != -1 && s2.substring(1).equals(s1.substring(s1.indexOf(':'))))) {
-                    return false;
-                }
-                candidate.add(cix, s1.substring(0, s1.indexOf(':')));
-            }
-        }
-        return true;
-    }
-
-    /**
-     * Removes the last element of the given list of strings
-     *
-     * @param strings the list to pop
-     * @return the removed element, or <tt>null</tt> if the list is empty
-     */
-    private static String pop(List<String> strings) {
-        if (!strings.isEmpty()) {
-            return strings.remove(strings.size() - 1);
-        }
-        return null;
-    }
-
-    private static List<List<String>> createSelectorParts(String s) {
-        List<List<String>> parts = new ArrayList<>();
-        String[] selectorParts = s.split(",");
-        for (String part : selectorParts) {
-            List<String> sub = new ArrayList<>();
-            String[] subParts = part.split(" ");
-            Collections.addAll(sub, subParts);
-            parts.add(sub);
-        }
-        return parts;
-    }
-
-    /**
-     * Clean up and free memory
-     *
-     * @param parts the list to clean
-     * @return true if there was any strings left
-     */
-    private static boolean cleanupSelectorParts(List<List<String>> parts) {
-        boolean leftovers = false;
-        for (List<String> part : parts) {
-            if (!part.isEmpty()) {
-                leftovers = true;
-            }
-            part.clear();
-        }
-        parts.clear();
-        return leftovers;
+        CssRuleset ruleset = PsiTreeUtil.getParentOfType(cssSelector, CssRuleset.class);
+        return ruleset != null && matcher.matches(CssUtils.getExpandedSelectors(ruleset));
     }
 
     /**
@@ -213,7 +101,14 @@ public class CssSelectorSearchProcessor implements TextOccurenceProcessor {
      */
     @NotNull
     private CssElement[] getResults() {
-        return selectors.toArray(new CssElement[0]);
+        List<CssElement> results = new ArrayList<>(selectors.size());
+        for (SmartPsiElementPointer<CssElement> pointer : selectors) {
+            CssElement element = pointer.getElement();
+            if (element != null) {
+                results.add(element);
+            }
+        }
+        return results.toArray(new CssElement[0]);
     }
 
     /**
@@ -17,6 +17,9 @@
 package com.github.cssxfire;
 
 import com.github.cssxfire.resolve.GotoDeclarationResolver;
+import com.github.cssxfire.resolve.ResolveCache;
+import com.github.cssxfire.resolve.VariableGraph;
+import com.intellij.concurrency.SensitiveProgressWrapper;
 import com.intellij.ide.browsers.BrowserFamily;
 import com.intellij.ide.browsers.BrowserLauncher;
 import com.intellij.ide.browsers.WebBrowser;
@@ -27,7 +30,14 @@ import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.openapi.fileTypes.FileTypeManager;
 import com.intellij.openapi.fileTypes.PlainTextFileType;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.Ref;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
@@ -35,12 +45,13 @@ import com.intellij.psi.PsiFileFactory;
 import com.intellij.psi.css.*;
 import com.intellij.psi.search.PsiElementProcessor;
 import com.intellij.psi.search.PsiSearchHelper;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Arrays;
-import java.util.Collection;
+import java.util.*;
 
 public class CssUtils {
     /**
@@ -52,6 +63,11 @@ public class CssUtils {
             FileTypeManager.getInstance().getStdFileType("SCSS")
     );
 
+    /**
+     * Flattened declarations of a block, along with the {@link ResolveCache} modification count they were computed at
+     */
+    private static final Key<Pair<Long, List<FlattenedDeclaration>>> FLATTENED_DECLARATIONS = Key.create("FLATTENED_DECLARATIONS");
+
     public static CssDeclaration createDeclaration(Project project, String selector, String property, String value, boolean important) {
         CSSLanguage cssLanguage = Language.findInstance(CSSLanguage.class);
         String text = selector + " {" + property + ":" + value + (important ? " !important" : "") + ";}\n";
@@ -92,6 +108,41 @@ public class CssUtils {
         return ServiceManager.getService(project, PsiSearchHelper.class);
     }
 
+    /**
+     * Computes something in a read action in smart mode, from a background thread, without holding up write actions:
+     * the computation is cancelled as soon as a write action is requested, and started over once it is done.
+     *
+     * @param project     the project
+     * @param computation the computation, which must check for cancellation regularly
+     * @param indicator   the progress indicator of the calling task
+     * @return the result of the computation
+     * @throws ProcessCanceledException if <i>indicator</i> is cancelled or the project is disposed
+     */
+    public static <T> T computeWithWriteActionPriority(@NotNull Project project, @NotNull Computable<T> computation,
+                                                       @NotNull ProgressIndicator indicator) {
+        DumbService dumbService = DumbService.getInstance(project);
+        Ref<T> result = Ref.create();
+        Ref<Boolean> computed = Ref.create(false);
+        while (true) {
+            indicator.checkCanceled();
+            if (project.isDisposed()) {
+                throw new ProcessCanceledException();
+            }
+            dumbService.waitForSmartMode();
+            // cancelling the wrapper on a write action leaves the indicator of the task alone
+            boolean completed = ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(() -> {
+                if (!project.isDisposed() && !dumbService.isDumb()) {
+                    result.set(computation.compute());
+                    computed.set(true);
+                }
+            }, new SensitiveProgressWrapper(indicator));
+            if (completed && computed.get()) {
+                return result.get();
+            }
+            ProgressIndicatorUtils.yieldToPendingWriteActions();
+        }
+    }
+
     public static boolean processParents(@NotNull PsiElement element, @NotNull PsiElementProcessor<PsiElement> processor) {
         PsiElement parent = element.getParent();
         while (parent != null) {
@@ -106,6 +157,34 @@ public class CssUtils {
         return true;
     }
 
+    /**
+     * Get the selectors of a ruleset with the selectors of its enclosing rulesets applied (Less/Sass), see
+     * {@link SelectorChainMatcher#expand(Set, String)}. The result is cached until the file changes, so rulesets
+     * sharing a parent expand it only once.
+     *
+     * @param ruleset the ruleset
+     * @return the expanded selectors, or an empty set if the ruleset or any enclosing ruleset has no selector
+     */
+    @NotNull
+    public static Set<String> getExpandedSelectors(@NotNull CssRuleset ruleset) {
+        return CachedValuesManager.getCachedValue(ruleset, () -> {
+            CssSelectorList selectorList = ruleset.getSelectorList();
+            CssRuleset parent = PsiTreeUtil.getParentOfType(ruleset, CssRuleset.class);
+            Set<String> parentSelectors = parent != null ? getExpandedSelectors(parent) : Collections.emptySet();
+            Set<String> expanded = selectorList == null || parent != null && parentSelectors.isEmpty()
+                    ? Collections.emptySet()
+                    : Collections.unmodifiableSet(SelectorChainMatcher.expand(parentSelectors, selectorList.getText()));
+            return CachedValueProvider.Result.create(expanded, ruleset.getContainingFile());
+        });
+    }
+
+    /**
+     * Resolves the variable a declaration value consists of, following variables defined by other variables
+     * to the definition where the value is actually written. See {@link VariableGraph}.
+     *
+     * @param cssDeclaration the declaration
+     * @return the root variable definition, or <tt>null</tt> if the value is not a single variable reference
+     */
     @Nullable
     public static PsiElement resolveVariableAssignment(@NotNull CssDeclaration cssDeclaration) {
         CssTermList termList = cssDeclaration.getValue();
@@ -117,8 +196,20 @@ public class CssUtils {
             return null; // not an explicit variable reference
         }
 
+        PsiElement assignment = resolveVariableReference(terms[0]);
+        return assignment != null ? VariableGraph.getInstance(cssDeclaration.getProject()).getRootDefinition(assignment) : null;
+    }
+
+    /**
+     * Resolves a term referencing a variable, one level only.
+     *
+     * @param term the term
+     * @return the variable definition, or <tt>null</tt> if the term does not reference a variable
+     */
+    @Nullable
+    public static PsiElement resolveVariableReference(@NotNull CssTerm term) {
         final Ref<PsiElement> resolved = Ref.create();
-        PsiTreeUtil.processElements(terms[0], element -> {
+        PsiTreeUtil.processElements(term, element -> {
             PsiElement[] targets = GotoDeclarationResolver.INSTANCE.getGotoDeclarationTargets(element, null);
             if (targets != null && targets.length == 1) {
                 resolved.set(targets[0]);
@@ -133,29 +224,84 @@ public class CssUtils {
         if (block == null) {
             return false;
         }
+        for (FlattenedDeclaration declaration : getFlattenedDeclarations(block)) {
+            if (!declarationProcessor.execute(declaration.getDeclaration())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get all declarations in effect for a block: the ones declared directly in it, followed by the ones contributed by
+     * mixins it includes (when mixins are resolved). The expansion is cached until a Less or Sass file changes, and a
+     * mixin which (indirectly) includes itself is expanded only once.
+     *
+     * @param block the block
+     * @return the flattened declarations, in order of appearance
+     */
+    @NotNull
+    public static List<FlattenedDeclaration> getFlattenedDeclarations(@NotNull CssBlock block) {
+        if (!isDynamicCssLanguage(block) || !CssXFireSettings.getInstance(block.getProject()).isResolveMixins()) {
+            List<FlattenedDeclaration> result = new ArrayList<>();
+            addDirectDeclarations(block, result);
+            return result;
+        }
+        return flattenDeclarations(block, new HashSet<>(), new Ref<>(false));
+    }
+
+    @NotNull
+    private static List<FlattenedDeclaration> flattenDeclarations(@NotNull CssBlock block, @NotNull Set<CssBlock> expanding,
+                                                                  @NotNull Ref<Boolean> truncated) {
+        long modificationCount = ResolveCache.getInstance(block.getProject()).getModificationTracker().getModificationCount();
+        Pair<Long, List<FlattenedDeclaration>> cached = block.getUserData(FLATTENED_DECLARATIONS);
+        if (cached != null && cached.first == modificationCount) {
+            return cached.second;
+        }
+
+        final List<FlattenedDeclaration> result = new ArrayList<>();
+        final Ref<Boolean> cycle = new Ref<>(false);
+        addDirectDeclarations(block, result);
+
+        expanding.add(block);
+        PsiTreeUtil.processElements(block, element -> {
+            PsiElement[] targets = GotoDeclarationResolver.INSTANCE.getGotoDeclarationTargets(element, null);
+            if (targets != null && targets.length == 1 && targets[0] instanceof CssRuleset) {
+                CssRuleset mixin = (CssRuleset) targets[0];
+                CssBlock mixinBlock = mixin.getBlock();
+                if (mixinBlock == null) {
+                    return true;
+                }
+                if (expanding.contains(mixinBlock)) {
+                    // Mixin includes itself, stop here
+                    cycle.set(true);
+                    return true;
+                }
+                for (FlattenedDeclaration declaration : flattenDeclarations(mixinBlock, expanding, cycle)) {
+                    result.add(new FlattenedDeclaration(declaration.getDeclaration(), mixin));
+                }
+            }
+            return true;
+        });
+        expanding.remove(block);
+
+        List<FlattenedDeclaration> flattened = Collections.unmodifiableList(result);
+        if (cycle.get()) {
+            // Depends on where the expansion started, never cache
+            truncated.set(true);
+        } else {
+            block.putUserData(FLATTENED_DECLARATIONS, Pair.create(modificationCount, flattened));
+        }
+        return flattened;
+    }
+
+    private static void addDirectDeclarations(@NotNull CssBlock block, @NotNull List<FlattenedDeclaration> result) {
         CssDeclaration[] declarations = PsiTreeUtil.getChildrenOfType(block, CssDeclaration.class);
         if (declarations != null) {
             for (CssDeclaration declaration : declarations) {
-                if (!declarationProcessor.execute(declaration)) {
-                    return false;
-                }
+                result.add(new FlattenedDeclaration(declaration, null));
             }
         }
-        if (isDynamicCssLanguage(block) && CssXFireSettings.getInstance(block.getProject()).isResolveMixins()) {
-            return PsiTreeUtil.processElements(block, element -> {
-                PsiElement[] targets = GotoDeclarationResolver.INSTANCE.getGotoDeclarationTargets(element, null);
-                if (targets != null && targets.length == 1) {
-                    PsiElement resolved = targets[0];
-                    if (resolved instanceof CssRuleset) {
-                        if (!processCssDeclarations(((CssRuleset) resolved).getBlock(), declarationProcessor)) {
-                            return false;
-                        }
-                    }
-                }
-                return true;
-            });
-        }
-        return true;
     }
 
     /**
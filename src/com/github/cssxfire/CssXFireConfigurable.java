@@ -24,6 +24,7 @@ import com.intellij.openapi.vfs.VirtualFileFilter;
 import com.intellij.ui.IdeBorderFactory;
 import com.intellij.ui.ScrollPaneFactory;
 import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.JBTextField;
 import com.intellij.util.ui.FormBuilder;
 import com.intellij.util.ui.UIUtil;
 import com.intellij.util.ui.tree.AbstractFileTreeTable;
@@ -41,14 +42,19 @@ public class CssXFireConfigurable implements SearchableConfigurable {
 
   private Project myProject;
   private JCheckBox myAutoClearCb;
+  private JCheckBox myWarmUpOnOpenCb;
   private JCheckBox myMediaReduceCb;
   private JCheckBox myFileNameReduceCb;
   private JCheckBox myRoutesReduceCb;
   private JCheckBox myOpenedFilesReduceCb;
+  private JCheckBox myMatchContentCb;
   private JCheckBox myResolveVariablesCb;
   private JCheckBox myResolveMixinsCb;
   private FileTreeTable myRoutesTable;
   private JButton mySetRootButton;
+  private JBTextField mySearchRootsField;
+  private JBTextField mySearchExcludesField;
+  private JCheckBox mySkipMinifiedCb;
 
   public CssXFireConfigurable(@NotNull Project project) {
     myProject = project;
@@ -65,7 +71,12 @@ public class CssXFireConfigurable implements SearchableConfigurable {
 
   public JComponent createComponent() {
     myAutoClearCb = new JBCheckBox("Clear pending changes when leaving or reloading page");
-    JPanel generalPanel = createFormBuilder().addComponent(myAutoClearCb).getPanel();
+    myWarmUpOnOpenCb = new JBCheckBox("Warm up caches when the project is opened");
+    JPanel generalPanel = createFormBuilder()
+      .addComponent(myAutoClearCb)
+      .addComponent(myWarmUpOnOpenCb)
+      .addTooltip("Otherwise caches are warmed up on the first event from the browser")
+      .getPanel();
     generalPanel.setBorder(IdeBorderFactory.createTitledBorder("General"));
 
     myResolveVariablesCb = new JBCheckBox("Resolve variables");
@@ -73,9 +84,24 @@ public class CssXFireConfigurable implements SearchableConfigurable {
     JPanel lessSassPanel = createFormBuilder().addComponent(myResolveVariablesCb).addComponent(myResolveMixinsCb).getPanel();
     lessSassPanel.setBorder(IdeBorderFactory.createTitledBorder("Less / Sass"));
 
+    mySearchRootsField = new JBTextField();
+    mySearchRootsField.getEmptyText().setText("Whole project");
+    mySearchExcludesField = new JBTextField();
+    mySkipMinifiedCb = new JBCheckBox("Skip minified and oversized (over 1 MB) stylesheets");
+    JPanel searchPanel = createFormBuilder()
+      .addLabeledComponent("Search in:", mySearchRootsField)
+      .addTooltip("Directories relative to the project root, separated by ;")
+      .addLabeledComponent("Exclude:", mySearchExcludesField)
+      .addTooltip("File masks like node_modules or dist/*.css, separated by ;")
+      .addComponent(mySkipMinifiedCb)
+      .addTooltip("Stylesheets on a few long lines, or larger than 1 MB")
+      .getPanel();
+    searchPanel.setBorder(IdeBorderFactory.createTitledBorder("Search"));
+
     myMediaReduceCb = new JBCheckBox("Match CSS3 media queries");
     myOpenedFilesReduceCb = new JBCheckBox("Currently opened files");
     myFileNameReduceCb = new JBCheckBox("Match filename");
+    myMatchContentCb = new JBCheckBox("Match stylesheets to project files by content");
     myRoutesReduceCb = new JBCheckBox("Use routes");
     myRoutesTable = new FileTreeTable(myProject);
     myRoutesReduceCb.addChangeListener(event -> UIUtil.setEnabled(myRoutesTable, myRoutesReduceCb.isSelected(), true));
@@ -96,6 +122,8 @@ public class CssXFireConfigurable implements SearchableConfigurable {
       .addComponent(myMediaReduceCb)
       .addComponent(myOpenedFilesReduceCb)
       .addComponent(myFileNameReduceCb)
+      .addComponent(myMatchContentCb)
+      .addTooltip("Requires extensions.cssxfire@cssxfire.matchContent to be enabled in Firefox")
       .addComponent(myRoutesReduceCb)
       .setFormLeftIndent(UIUtil.getCheckBoxTextHorizontalOffset(myRoutesReduceCb))
       .addComponent(ScrollPaneFactory.createScrollPane(myRoutesTable))
@@ -116,6 +144,7 @@ public class CssXFireConfigurable implements SearchableConfigurable {
 
     panel.add(generalPanel, c);
     panel.add(lessSassPanel, c);
+    panel.add(searchPanel, c);
     c.weightx = 1.0;
     c.weighty = 1.0;
     panel.add(reduceStrategyPanel, c);
@@ -125,14 +154,19 @@ public class CssXFireConfigurable implements SearchableConfigurable {
 
   public void disposeUIResources() {
     UIUtil.dispose(myAutoClearCb);
+    UIUtil.dispose(myWarmUpOnOpenCb);
     UIUtil.dispose(myMediaReduceCb);
     UIUtil.dispose(myFileNameReduceCb);
     UIUtil.dispose(myRoutesReduceCb);
     UIUtil.dispose(myOpenedFilesReduceCb);
+    UIUtil.dispose(myMatchContentCb);
     UIUtil.dispose(myResolveVariablesCb);
     UIUtil.dispose(myResolveMixinsCb);
     UIUtil.dispose(myRoutesTable);
     UIUtil.dispose(mySetRootButton);
+    UIUtil.dispose(mySearchRootsField);
+    UIUtil.dispose(mySearchExcludesField);
+    UIUtil.dispose(mySkipMinifiedCb);
   }
 
   private void updateWebRoot() {
@@ -169,24 +203,35 @@ public class CssXFireConfigurable implements SearchableConfigurable {
     CssXFireSettings settings = CssXFireSettings.getInstance(myProject);
     return !settings.getRoutes().getMappings().equals(myRoutesTable.getValues())
            || settings.isAutoClear() != myAutoClearCb.isSelected()
+           || settings.isWarmUpOnOpen() != myWarmUpOnOpenCb.isSelected()
            || settings.isMediaReduce() != myMediaReduceCb.isSelected()
            || settings.isFileReduce() != myFileNameReduceCb.isSelected()
            || settings.isUseRoutes() != myRoutesReduceCb.isSelected()
            || settings.isCurrentDocumentsReduce() != myOpenedFilesReduceCb.isSelected()
+           || settings.isMatchContent() != myMatchContentCb.isSelected()
            || settings.isResolveVariables() != myResolveVariablesCb.isSelected()
-           || settings.isResolveMixins() != myResolveMixinsCb.isSelected();
+           || settings.isResolveMixins() != myResolveMixinsCb.isSelected()
+           || !settings.getSearchRoots().equals(mySearchRootsField.getText().trim())
+           || !settings.getSearchExcludes().equals(mySearchExcludesField.getText().trim())
+           || settings.isSkipMinified() != mySkipMinifiedCb.isSelected();
   }
 
   public void apply() {
     CssXFireSettings settings = CssXFireSettings.getInstance(myProject);
     settings.getRoutes().setMappings(myRoutesTable.getValues());
     settings.setAutoClear(myAutoClearCb.isSelected());
+    settings.setWarmUpOnOpen(myWarmUpOnOpenCb.isSelected());
     settings.setMediaReduce(myMediaReduceCb.isSelected());
     settings.setFileReduce(myFileNameReduceCb.isSelected());
     settings.setCurrentDocumentsReduce(myOpenedFilesReduceCb.isSelected());
+    settings.setMatchContent(myMatchContentCb.isSelected());
     settings.setResolveVariables(myResolveVariablesCb.isSelected());
     settings.setResolveMixins(myResolveMixinsCb.isSelected());
     settings.setUseRoutes(myRoutesReduceCb.isSelected());
+    settings.setSearchRoots(mySearchRootsField.getText().trim());
+    settings.setSearchExcludes(mySearchExcludesField.getText().trim());
+    settings.setSkipMinified(mySkipMinifiedCb.isSelected());
+    SearchProcessorCache.getInstance(myProject).resetSearchScope();
   }
 
   public void reset() {
@@ -194,12 +239,17 @@ public class CssXFireConfigurable implements SearchableConfigurable {
     myRoutesTable.reset(settings.getRoutes().getMappings());
     UIUtil.setEnabled(myRoutesTable, settings.isUseRoutes(), true);
     myAutoClearCb.setSelected(settings.isAutoClear());
+    myWarmUpOnOpenCb.setSelected(settings.isWarmUpOnOpen());
     myFileNameReduceCb.setSelected(settings.isFileReduce());
     myMediaReduceCb.setSelected(settings.isMediaReduce());
     myOpenedFilesReduceCb.setSelected(settings.isCurrentDocumentsReduce());
+    myMatchContentCb.setSelected(settings.isMatchContent());
     myResolveVariablesCb.setSelected(settings.isResolveVariables());
     myResolveMixinsCb.setSelected(settings.isResolveMixins());
     myRoutesReduceCb.setSelected(settings.isUseRoutes());
+    mySearchRootsField.setText(settings.getSearchRoots());
+    mySearchExcludesField.setText(settings.getSearchExcludes());
+    mySkipMinifiedCb.setSelected(settings.isSkipMinified());
     updateWebRootButton();
   }
 
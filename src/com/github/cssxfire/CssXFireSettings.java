@@ -46,9 +46,16 @@ public class CssXFireSettings implements PersistentStateComponent<Element> {
   private boolean mediaReduce;
   private boolean fileReduce;
   private boolean currentDocumentsReduce;
+  private boolean matchContent;
   private boolean autoExpand;
+  private boolean warmUpOnOpen;
   private boolean resolveVariables = true;
   private boolean resolveMixins = true;
+  private String searchRoots = "";
+  private String searchExcludes = DEFAULT_SEARCH_EXCLUDES;
+  private boolean skipMinified = true;
+
+  public static final String DEFAULT_SEARCH_EXCLUDES = "node_modules";
 
   private static final Comparator<VirtualFile> FILE_COMPARATOR = Comparator.comparing(VirtualFile::getPath);
 
@@ -69,6 +76,17 @@ public class CssXFireSettings implements PersistentStateComponent<Element> {
     this.autoExpand = autoExpand;
   }
 
+  /**
+   * @return <tt>true</tt> if caches should be warmed up when the project is opened, rather than on the first event from the browser
+   */
+  public boolean isWarmUpOnOpen() {
+    return warmUpOnOpen;
+  }
+
+  public void setWarmUpOnOpen(boolean warmUpOnOpen) {
+    this.warmUpOnOpen = warmUpOnOpen;
+  }
+
   public boolean isAutoClear() {
     return autoClear;
   }
@@ -109,6 +127,17 @@ public class CssXFireSettings implements PersistentStateComponent<Element> {
     this.currentDocumentsReduce = currentDocumentsReduce;
   }
 
+  /**
+   * @return <tt>true</tt> if stylesheets reported by the browser should be matched to project files by content
+   */
+  public boolean isMatchContent() {
+    return matchContent;
+  }
+
+  public void setMatchContent(boolean matchContent) {
+    this.matchContent = matchContent;
+  }
+
   public boolean isResolveVariables() {
     return resolveVariables;
   }
@@ -125,11 +154,47 @@ public class CssXFireSettings implements PersistentStateComponent<Element> {
     this.resolveMixins = resolveMixins;
   }
 
+  /**
+   * @return project relative directories to search for stylesheets, separated by <tt>;</tt>. Empty means the whole project.
+   */
+  @NotNull
+  public String getSearchRoots() {
+    return searchRoots;
+  }
+
+  public void setSearchRoots(@NotNull String searchRoots) {
+    this.searchRoots = searchRoots;
+  }
+
+  /**
+   * @return file masks of directories and stylesheets never to search, separated by <tt>;</tt>
+   */
+  @NotNull
+  public String getSearchExcludes() {
+    return searchExcludes;
+  }
+
+  public void setSearchExcludes(@NotNull String searchExcludes) {
+    this.searchExcludes = searchExcludes;
+  }
+
+  /**
+   * @return <tt>true</tt> if minified and oversized stylesheets should never be searched
+   */
+  public boolean isSkipMinified() {
+    return skipMinified;
+  }
+
+  public void setSkipMinified(boolean skipMinified) {
+    this.skipMinified = skipMinified;
+  }
+
   public Element getState() {
     Element root = new Element("root");
     Element general = new Element("general");
     Element strategy = new Element("strategy");
     Element routes = new Element("routes");
+    Element search = new Element("search");
     List<VirtualFile> files = new ArrayList<>(this.routes.getMappings().keySet());
     ContainerUtil.quickSort(files, FILE_COMPARATOR);
     for (VirtualFile file : files) {
@@ -143,15 +208,21 @@ public class CssXFireSettings implements PersistentStateComponent<Element> {
     }
     general.setAttribute("autoClear", Boolean.toString(this.autoClear));
     general.setAttribute("autoExpand", Boolean.toString(this.autoExpand));
+    general.setAttribute("warmUpOnOpen", Boolean.toString(this.warmUpOnOpen));
     strategy.setAttribute("useRoutes", Boolean.toString(this.useRoutes));
     strategy.setAttribute("mediaReduce", Boolean.toString(this.mediaReduce));
     strategy.setAttribute("fileReduce", Boolean.toString(this.fileReduce));
     strategy.setAttribute("currentDocumentsReduce", Boolean.toString(this.currentDocumentsReduce));
+    strategy.setAttribute("matchContent", Boolean.toString(this.matchContent));
     strategy.setAttribute("resolveVariables", Boolean.toString(this.resolveVariables));
     strategy.setAttribute("resolveMixins", Boolean.toString(this.resolveMixins));
+    search.setAttribute("roots", this.searchRoots);
+    search.setAttribute("excludes", this.searchExcludes);
+    search.setAttribute("skipMinified", Boolean.toString(this.skipMinified));
     root.addContent(general);
     root.addContent(strategy);
     root.addContent(routes);
+    root.addContent(search);
     return root;
   }
 
@@ -178,12 +249,20 @@ public class CssXFireSettings implements PersistentStateComponent<Element> {
     this.autoClear = general != null && Boolean.parseBoolean(general.getAttributeValue("autoClear"));
     this.autoExpand =
       general == null || general.getAttributeValue("autoExpand") == null || Boolean.parseBoolean(general.getAttributeValue("autoExpand"));
+    this.warmUpOnOpen = general != null && Boolean.parseBoolean(general.getAttributeValue("warmUpOnOpen"));
     Element strategy = root.getChild("strategy");
     this.fileReduce = strategy != null && Boolean.parseBoolean(strategy.getAttributeValue("fileReduce"));
     this.mediaReduce = strategy != null && Boolean.parseBoolean(strategy.getAttributeValue("mediaReduce"));
     this.currentDocumentsReduce = strategy != null && Boolean.parseBoolean(strategy.getAttributeValue("currentDocumentsReduce"));
+    this.matchContent = strategy != null && Boolean.parseBoolean(strategy.getAttributeValue("matchContent"));
     this.resolveVariables = strategy != null && Boolean.parseBoolean(strategy.getAttributeValue("resolveVariables"));
     this.resolveMixins = strategy != null && Boolean.parseBoolean(strategy.getAttributeValue("resolveMixins"));
     this.useRoutes = strategy != null && Boolean.parseBoolean(strategy.getAttributeValue("useRoutes"));
+    Element search = root.getChild("search");
+    this.searchRoots = StringUtil.notNullize(search != null ? search.getAttributeValue("roots") : null);
+    this.searchExcludes = search != null && search.getAttributeValue("excludes") != null
+      ? search.getAttributeValue("excludes") : DEFAULT_SEARCH_EXCLUDES;
+    this.skipMinified = search == null || search.getAttributeValue("skipMinified") == null
+      || Boolean.parseBoolean(search.getAttributeValue("skipMinified"));
   }
 }
@@ -20,6 +20,7 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.PathUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * <p>A simple bean which holds the properties reported by Firebug extension when editing a CSS rule.
@@ -34,6 +35,12 @@ public class FirebugChangesBean {
     @NotNull
     private final String filename;
     @NotNull
+    private final String hash;
+    @NotNull
+    private final String rule;
+    @Nullable
+    private final VirtualFile matchedFile;
+    @NotNull
     private final String selector;
     @NotNull
     private final String property;
@@ -42,11 +49,15 @@ public class FirebugChangesBean {
     private final boolean deleted;
     private final boolean important;
 
-    public FirebugChangesBean(@NotNull String media, @NotNull String url, @NotNull String selector,
-                              @NotNull String property, @NotNull String value, boolean deleted, boolean important) {
+    public FirebugChangesBean(@NotNull String media, @NotNull String url, @NotNull String hash, @NotNull String rule,
+                              @NotNull String selector, @NotNull String property, @NotNull String value, boolean deleted,
+                              boolean important) {
         this.media = media;
         this.path = StringUtils.extractPath(url);
         this.filename = PathUtil.getFileName(path);
+        this.hash = hash;
+        this.rule = rule;
+        this.matchedFile = null;
         this.selector = selector;
         this.property = property;
         this.value = value;
@@ -54,11 +65,15 @@ public class FirebugChangesBean {
         this.important = important;
     }
 
-    private FirebugChangesBean(@NotNull String media, @NotNull String path, @NotNull String filename, @NotNull String selector,
+    private FirebugChangesBean(@NotNull String media, @NotNull String path, @NotNull String filename, @NotNull String hash,
+                               @NotNull String rule, @Nullable VirtualFile matchedFile, @NotNull String selector,
                                @NotNull String property, @NotNull String value, boolean deleted, boolean important) {
         this.media = media;
         this.path = path;
         this.filename = filename;
+        this.hash = hash;
+        this.rule = rule;
+        this.matchedFile = matchedFile;
         this.selector = selector;
         this.property = property;
         this.value = value;
@@ -68,25 +83,38 @@ public class FirebugChangesBean {
 
     /**
      * Applies project routes (depending on project settings) and returns a copy itself
-     * with possibly modified properties.
+     * with possibly modified properties. A stylesheet matched by content takes precedence over routes.
      *
      * @param project the project
      * @return a new bean instance
      */
     public FirebugChangesBean applyRoutes(@NotNull Project project) {
-        if (CssXFireSettings.getInstance(project).isUseRoutes()) {
+        CssXFireSettings settings = CssXFireSettings.getInstance(project);
+        if (settings.isMatchContent() && !hash.isEmpty()) {
+            VirtualFile matchedFile = SearchProcessorCache.getInstance(project).findStylesheet(hash, filename);
+            if (matchedFile != null) {
+                return withLocalFile(project, matchedFile, matchedFile);
+            }
+        }
+        if (settings.isUseRoutes()) {
             VirtualFile targetFile = RouteUtils.detectLocalFile(project, path);
             if (targetFile != null) {
-                VirtualFile projectBaseDir = project.getBaseDir();
-                if (projectBaseDir != null) {
-                    // replace path and filename
-                    String filename = targetFile.getName();
-                    String path = targetFile.getUrl().substring(projectBaseDir.getUrl().length());
-                    return new FirebugChangesBean(media, path, filename, selector, property, value, deleted, important);
-                }
+                return withLocalFile(project, targetFile, null);
             }
         }
-        return new FirebugChangesBean(media, path, filename, selector, property, value, deleted, important);
+        return new FirebugChangesBean(media, path, filename, hash, rule, null, selector, property, value, deleted, important);
+    }
+
+    @NotNull
+    private FirebugChangesBean withLocalFile(@NotNull Project project, @NotNull VirtualFile targetFile, @Nullable VirtualFile matchedFile) {
+        VirtualFile projectBaseDir = project.getBaseDir();
+        if (projectBaseDir != null && targetFile.getUrl().startsWith(projectBaseDir.getUrl())) {
+            // replace path and filename
+            String filename = targetFile.getName();
+            String path = targetFile.getUrl().substring(projectBaseDir.getUrl().length());
+            return new FirebugChangesBean(media, path, filename, hash, rule, matchedFile, selector, property, value, deleted, important);
+        }
+        return new FirebugChangesBean(media, path, filename, hash, rule, matchedFile, selector, property, value, deleted, important);
     }
 
     @NotNull
@@ -104,6 +132,30 @@ public class FirebugChangesBean {
         return filename;
     }
 
+    /**
+     * @return the content hash of the stylesheet as reported by the browser, or an empty string if not reported
+     */
+    @NotNull
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * @return the fingerprint of the rule's declaration block in the original stylesheet, or an empty string if not reported
+     */
+    @NotNull
+    public String getRule() {
+        return rule;
+    }
+
+    /**
+     * @return the project stylesheet matched by content hash in {@link #applyRoutes(Project)}, if any
+     */
+    @Nullable
+    public VirtualFile getMatchedFile() {
+        return matchedFile;
+    }
+
     @NotNull
     public String getSelector() {
         return selector;
@@ -129,7 +181,7 @@ public class FirebugChangesBean {
 
     @Override
     public String toString() {
-        return "{media=" + media + ", path=" + path + ", filename=" + filename + ", selector=" + selector
+        return "{media=" + media + ", path=" + path + ", filename=" + filename + ", hash=" + hash + ", rule=" + rule + ", selector=" + selector
                 + ", property=" + property + ", value=" + value + ", important=" + important + ", deleted=" + deleted + "}";
     }
 }
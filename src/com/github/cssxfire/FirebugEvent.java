@@ -18,21 +18,75 @@ package com.github.cssxfire;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * <p>An event signaling something sent by the Firebug extension.
  * <p><p>Created by IntelliJ IDEA.
  * User: Ronnie
  */
 public class FirebugEvent {
+    /**
+     * A page was opened or refreshed
+     */
+    public static final String REFRESH = "refresh";
+    /**
+     * A page has loaded a stylesheet, see {@link #getHref()}, {@link #getHash()} and {@link #getSelectors()}
+     */
+    public static final String LOAD = "load";
+
     @NotNull
     private final String name;
+    @NotNull
+    private final String href;
+    @NotNull
+    private final String hash;
+    @NotNull
+    private final List<String> selectors;
 
     public FirebugEvent(@NotNull String name) {
+        this(name, "", "", Collections.emptyList());
+    }
+
+    public FirebugEvent(@NotNull String name, @NotNull String href, @NotNull String hash, @NotNull List<String> selectors) {
         this.name = name;
+        this.href = href;
+        this.hash = hash;
+        this.selectors = selectors;
     }
 
     @NotNull
     public String getName() {
         return name;
     }
+
+    /**
+     * @return the href of the stylesheet loaded, or an empty string if not reported
+     */
+    @NotNull
+    public String getHref() {
+        return href;
+    }
+
+    /**
+     * @return the content hash of the stylesheet loaded, or an empty string if not reported
+     */
+    @NotNull
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * @return the selectors of the stylesheet loaded, possibly only the first ones, or an empty list if not reported
+     */
+    @NotNull
+    public List<String> getSelectors() {
+        return selectors;
+    }
+
+    @Override
+    public String toString() {
+        return "{name=" + name + ", href=" + href + ", hash=" + hash + ", selectors=" + selectors.size() + "}";
+    }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire;
+
+import com.intellij.psi.css.CssDeclaration;
+import com.intellij.psi.css.CssRuleset;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A declaration in effect for a block, either declared directly in it or contributed by a mixin it includes.
+ *
+ * @see CssUtils#getFlattenedDeclarations(com.intellij.psi.css.CssBlock)
+ */
+public class FlattenedDeclaration {
+    @NotNull
+    private final CssDeclaration declaration;
+    @Nullable
+    private final CssRuleset mixin;
+
+    public FlattenedDeclaration(@NotNull CssDeclaration declaration, @Nullable CssRuleset mixin) {
+        this.declaration = declaration;
+        this.mixin = mixin;
+    }
+
+    @NotNull
+    public CssDeclaration getDeclaration() {
+        return declaration;
+    }
+
+    /**
+     * @return the mixin included by the block which contributed this declaration, or <tt>null</tt> if declared directly in the block
+     */
+    @Nullable
+    public CssRuleset getMixin() {
+        return mixin;
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.github.cssxfire;
 
+import com.github.cssxfire.filter.ReduceStrategy;
 import com.github.cssxfire.filter.ReduceStrategyManager;
 import com.github.cssxfire.tree.CssDeclarationPath;
 import com.github.cssxfire.ui.CssToolWindow;
@@ -23,15 +24,22 @@ import com.intellij.icons.AllIcons;
 import com.intellij.ide.plugins.IdeaPluginDescriptor;
 import com.intellij.ide.plugins.PluginManager;
 import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.ProjectComponent;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.extensions.PluginId;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowAnchor;
 import com.intellij.openapi.wm.ToolWindowManager;
@@ -40,18 +48,32 @@ import com.intellij.psi.PsiTreeChangeAdapter;
 import com.intellij.psi.PsiTreeChangeEvent;
 import com.intellij.psi.PsiTreeChangeListener;
 import com.intellij.psi.css.CssDeclaration;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.ui.content.Content;
 import com.intellij.ui.content.ContentFactory;
+import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class IncomingChangesComponent implements ProjectComponent {
     public static final String TOOLWINDOW_ID = "CSS-X-Fire";
     private static final String PREVIOUS_VERSION_PROPERTY_NAME = "css.x.fire.previous.version";
+    private static final Logger LOG = Logger.getInstance(IncomingChangesComponent.class.getName());
 
     private final Project project;
     private final CssToolWindow cssToolWindow;
+    private final Queue<FirebugChangesBean> changesQueue = new ConcurrentLinkedQueue<>();
+    private boolean processingChanges;
+    private final Queue<Prefetch> prefetchQueue = new ConcurrentLinkedQueue<>();
+    private boolean prefetching;
+    private final Set<VirtualFile> reportedSkippedFiles = ContainerUtil.newConcurrentSet();
 
     private final PsiTreeChangeListener myListener = new PsiTreeChangeAdapter() {
         @Override
@@ -154,30 +176,106 @@ public class IncomingChangesComponent implements ProjectComponent {
         ToolWindowManager.getInstance(project).unregisterToolWindow(TOOLWINDOW_ID);
     }
 
+    /**
+     * Queues a change for processing. Candidates are located in a background task, one change after another in order
+     * of arrival, and rendered in the tree view as each change is done.
+     *
+     * @param changesBean the change
+     */
     public void processRule(final FirebugChangesBean changesBean) {
-        DumbService.getInstance(project).smartInvokeLater(() -> {
-            if (!project.isInitialized()) {
-                return;
+        if (!project.isInitialized()) {
+            return;
+        }
+        changesQueue.add(changesBean);
+        processChangesQueue();
+    }
+
+    private void processChangesQueue() {
+        if (processingChanges || changesQueue.isEmpty() || project.isDisposed()) {
+            return;
+        }
+        processingChanges = true;
+        new Task.Backgroundable(project, "Locating CSS-X-Fire changes", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                FirebugChangesBean changesBean;
+                while ((changesBean = changesQueue.poll()) != null) {
+                    FirebugChangesBean bean = changesBean;
+                    Collection<CssDeclarationPath> candidates = CssUtils.computeWithWriteActionPriority(project, () -> getCandidates(bean), indicator);
+                    ApplicationManager.getApplication().invokeLater(() -> showCandidates(candidates), project.getDisposed());
+                }
+            }
+
+            @Override
+            public void onCancel() {
+                changesQueue.clear();
+            }
+
+            @Override
+            public void onFinished() {
+                processingChanges = false;
+                // changes reported after the last poll
+                processChangesQueue();
             }
+        }.queue();
+    }
+
+    @NotNull
+    private Collection<CssDeclarationPath> getCandidates(@NotNull FirebugChangesBean changesBean) {
+        // Apply routes
+        FirebugChangesBean routedChangesBean = changesBean.applyRoutes(project);
 
-            // Apply routes
-            FirebugChangesBean routedChangesBean = changesBean.applyRoutes(project);
+        // A generated stylesheet with a source map points straight at the rule in its sources
+        Collection<CssDeclarationPath> candidates = IncomingChangesProcessor.getSourceMappedCandidates(project, routedChangesBean);
+
+        if (candidates == null) {
+            // Search only the files that can survive the filter options, or just the stylesheet matched by content
+            ReduceStrategy<CssDeclarationPath> reduceStrategy = ReduceStrategyManager.getStrategy(project, routedChangesBean);
+            GlobalSearchScope searchScope = getSearchScope(routedChangesBean, reduceStrategy);
 
             // Get all possible candidates from the style info provided by Firebug
-            final Collection<CssDeclarationPath> candidates = IncomingChangesProcessor.getProjectCandidates(project, routedChangesBean);
+            candidates = IncomingChangesProcessor.getProjectCandidates(project, routedChangesBean, searchScope);
 
             // Reduce results if any of the filter options are checked
-            ReduceStrategyManager.getStrategy(project, routedChangesBean).reduce(candidates);
+            reduceStrategy.reduce(candidates);
 
-            // Render remaining candidates in the "Incoming changes" tree view
-            for (CssDeclarationPath candidate : candidates) {
-                cssToolWindow.getTreeModel().intersect(candidate);
+            if (candidates.isEmpty() && routedChangesBean.getMatchedFile() == null) {
+                reportSkippedFiles(routedChangesBean);
             }
+        }
+        return candidates;
+    }
 
-            if (CssXFireSettings.getInstance(project).isAutoExpand()) {
-                cssToolWindow.expandAll();
+    /**
+     * Tells the user, once per file, when a change found no candidates while the stylesheet it was made to is left
+     * out of the search as minified or oversized.
+     *
+     * @param routedChangesBean the change, with routes applied
+     */
+    private void reportSkippedFiles(@NotNull FirebugChangesBean routedChangesBean) {
+        if (!CssXFireSettings.getInstance(project).isSkipMinified() || routedChangesBean.getFilename().isEmpty()) {
+            return;
+        }
+        for (VirtualFile file : FilenameIndex.getVirtualFilesByName(project, routedChangesBean.getFilename(), GlobalSearchScope.projectScope(project))) {
+            if (StylesheetSearchScope.isMinified(file) && reportedSkippedFiles.add(file)) {
+                LOG.info("No candidates for " + routedChangesBean + ", skipped minified stylesheet " + file.getPath());
+                Notifications.Bus.notify(new Notification(TOOLWINDOW_ID, "CSS-X-Fire",
+                        "Changes to " + file.getName() + " can not be located since it is skipped as minified or oversized. "
+                                + "Uncheck \"Skip minified and oversized (over 1 MB) stylesheets\" in the CSS-X-Fire settings "
+                                + "to search it.", NotificationType.INFORMATION), project);
             }
-        });
+        }
+    }
+
+    private void showCandidates(@NotNull Collection<CssDeclarationPath> candidates) {
+        // Render remaining candidates in the "Incoming changes" tree view
+        for (CssDeclarationPath candidate : candidates) {
+            cssToolWindow.getTreeModel().intersect(candidate);
+        }
+
+        if (CssXFireSettings.getInstance(project).isAutoExpand()) {
+            cssToolWindow.expandAll();
+        }
     }
 
     public void handleEvent(final FirebugEvent event) {
@@ -185,10 +283,104 @@ public class IncomingChangesComponent implements ProjectComponent {
             if (!project.isInitialized()) {
                 return;
             }
+            CacheWarmupActivity.start(project);
 
-            if ("refresh".equals(event.getName()) && CssXFireSettings.getInstance(project).isAutoClear()) {
+            if (FirebugEvent.REFRESH.equals(event.getName()) && CssXFireSettings.getInstance(project).isAutoClear()) {
                 cssToolWindow.clearTree();
             }
+            if (FirebugEvent.LOAD.equals(event.getName()) && !event.getHref().isEmpty()) {
+                prefetch(event);
+            }
         });
     }
+
+    @NotNull
+    private GlobalSearchScope getSearchScope(@NotNull FirebugChangesBean routedChangesBean, @NotNull ReduceStrategy<CssDeclarationPath> reduceStrategy) {
+        VirtualFile matchedFile = routedChangesBean.getMatchedFile();
+        GlobalSearchScope searchScope = SearchProcessorCache.getInstance(project).getSearchScope();
+        return reduceStrategy.restrictSearchScope(matchedFile != null
+                ? GlobalSearchScope.fileScope(project, matchedFile).intersectWith(searchScope)
+                : searchScope);
+    }
+
+    /**
+     * Prepares for changes to a stylesheet loaded in the browser. The stylesheet is routed just like its changes
+     * will be, by the content hash reported with it when matching by content, then the project files it maps to are parsed and its selectors searched for in the background, so the
+     * first change hits warm caches. Stylesheets of the same page are processed one after another by a single task.
+     *
+     * @param event the load event
+     */
+    private void prefetch(@NotNull FirebugEvent event) {
+        FirebugChangesBean routedChangesBean = new FirebugChangesBean("", event.getHref(), event.getHash(), "", "", "", "", false, false)
+                .applyRoutes(project);
+        GlobalSearchScope searchScope = getSearchScope(routedChangesBean, ReduceStrategyManager.getStrategy(project, routedChangesBean));
+        VirtualFile matchedFile = routedChangesBean.getMatchedFile();
+        Collection<VirtualFile> files = matchedFile != null
+                ? Collections.singletonList(matchedFile)
+                : FilenameIndex.getVirtualFilesByName(project, routedChangesBean.getFilename(), searchScope);
+        if (files.isEmpty()) {
+            // not a project stylesheet
+            return;
+        }
+        prefetchQueue.add(new Prefetch(files, searchScope, event.getSelectors()));
+        processPrefetchQueue();
+    }
+
+    private void processPrefetchQueue() {
+        if (!prefetching && !prefetchQueue.isEmpty() && !project.isDisposed()) {
+            prefetching = true;
+            new Task.Backgroundable(project, "Preparing CSS-X-Fire for page", true) {
+                @Override
+                public void run(@NotNull ProgressIndicator indicator) {
+                    Prefetch prefetch;
+                    while ((prefetch = prefetchQueue.poll()) != null) {
+                        prefetch.run(project, indicator);
+                    }
+                }
+
+                @Override
+                public void onCancel() {
+                    prefetchQueue.clear();
+                }
+
+                @Override
+                public void onFinished() {
+                    prefetching = false;
+                    // stylesheets reported after the last poll
+                    processPrefetchQueue();
+                }
+            }.queue();
+        }
+    }
+
+    /**
+     * The project files of a loaded stylesheet, and the selectors to search for.
+     */
+    private static class Prefetch {
+        @NotNull
+        private final Collection<VirtualFile> files;
+        @NotNull
+        private final GlobalSearchScope searchScope;
+        @NotNull
+        private final List<String> selectors;
+
+        private Prefetch(@NotNull Collection<VirtualFile> files, @NotNull GlobalSearchScope searchScope, @NotNull List<String> selectors) {
+            this.files = files;
+            this.searchScope = searchScope;
+            this.selectors = selectors;
+        }
+
+        private void run(@NotNull Project project, @NotNull ProgressIndicator indicator) {
+            CacheWarmupActivity.warmUp(project, files, indicator);
+            SearchProcessorCache searchProcessorCache = SearchProcessorCache.getInstance(project);
+            int count = 0;
+            for (String selector : selectors) {
+                indicator.checkCanceled();
+                indicator.setFraction((double) count++ / selectors.size());
+                indicator.setText("Searching " + selector);
+                // cancelled and restarted by any write action, so typing in the editor never waits for a search
+                CssUtils.computeWithWriteActionPriority(project, () -> searchProcessorCache.getSelectorSearchProcessor(selector, searchScope), indicator);
+            }
+        }
+    }
 }
@@ -16,8 +16,14 @@
 
 package com.github.cssxfire;
 
+import com.github.cssxfire.index.MediaQueryIndex;
+import com.github.cssxfire.index.RuleFingerprintIndex;
+import com.github.cssxfire.sourcemap.SourceMapLocator;
 import com.github.cssxfire.tree.*;
+import com.intellij.concurrency.JobLauncher;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Ref;
 import com.intellij.psi.PsiDirectory;
@@ -30,16 +36,19 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class IncomingChangesProcessor {
     private static final Logger LOG = Logger.getInstance(IncomingChangesProcessor.class.getName());
 
     private final Project project;
     private final FirebugChangesBean changesBean;
+    private final GlobalSearchScope searchScope;
 
-    private IncomingChangesProcessor(Project project, FirebugChangesBean changesBean) {
+    private IncomingChangesProcessor(Project project, FirebugChangesBean changesBean, GlobalSearchScope searchScope) {
         this.project = project;
         this.changesBean = changesBean;
+        this.searchScope = searchScope;
     }
 
     /**
@@ -48,49 +57,65 @@ public class IncomingChangesProcessor {
      *
      * @param project     the project
      * @param changesBean the changes picked up from the Firebug extension
+     * @param searchScope the scope to search, possibly restricted by the reduce strategies in use
      * @return all candidates matching the selector, media query, and filename contained in the bean
      */
-    static Collection<CssDeclarationPath> getProjectCandidates(Project project, FirebugChangesBean changesBean) {
-        return new IncomingChangesProcessor(project, changesBean).getCandidates();
+    static Collection<CssDeclarationPath> getProjectCandidates(Project project, FirebugChangesBean changesBean, GlobalSearchScope searchScope) {
+        return new IncomingChangesProcessor(project, changesBean, searchScope).getCandidates();
+    }
+
+    /**
+     * Gets the candidates for a change to a generated stylesheet directly from its source map, without searching
+     * the project for the selector.
+     *
+     * @param project     the project
+     * @param changesBean the changes picked up from the Firebug extension
+     * @return the candidates in the Less or Sass sources, or <tt>null</tt> if the stylesheet has no source map or the
+     *         changed rule could not be mapped
+     */
+    @Nullable
+    static Collection<CssDeclarationPath> getSourceMappedCandidates(Project project, FirebugChangesBean changesBean) {
+        CssBlock[] cssBlocks = SourceMapLocator.findSourceBlocks(project, changesBean);
+        if (cssBlocks == null) {
+            return null;
+        }
+        IncomingChangesProcessor processor = new IncomingChangesProcessor(project, changesBean, GlobalSearchScope.EMPTY_SCOPE);
+        List<CssDeclarationPath> candidates = new ArrayList<>();
+        Map<CssBlock, CssDeclaration> existingDeclarations = processor.findExistingDeclarations(cssBlocks);
+        for (CssBlock block : cssBlocks) {
+            CssDeclarationPath cssDeclarationPath = processor.createPath(block, existingDeclarations.get(block));
+            if (cssDeclarationPath != null) {
+                candidates.add(cssDeclarationPath);
+            }
+        }
+        return candidates;
     }
 
     private Collection<CssDeclarationPath> getCandidates() {
         final List<CssDeclarationPath> candidates = new ArrayList<>();
-        // find possible media query targets with its own processor
+        // find possible media query targets in the media query index
         Set<CssMediumList> mediaCandidates = findCandidateMediaLists();
 
         // find possible file targets with its own search
         Set<PsiFile> fileCandidates = findCandidateFiles();
 
-        // search for existing selectors
-        CssSelectorSearchProcessor selectorProcessor = SearchProcessorCache.getInstance(project).getSelectorSearchProcessor(changesBean.getSelector());
-        CssBlock[] cssBlocks = selectorProcessor.getBlocks();
+        // locate the rule by its fingerprint, or search for existing selectors
+        CssBlock[] cssBlocks = findBlocksByFingerprint();
+        if (cssBlocks == null) {
+            CssSelectorSearchProcessor selectorProcessor = SearchProcessorCache.getInstance(project).getSelectorSearchProcessor(changesBean.getSelector(), searchScope);
+            cssBlocks = selectorProcessor.getBlocks();
 
-        if (LOG.isDebugEnabled()) {
-            LOG.debug("Searched CSS selectors for '" + selectorProcessor.getSearchWord()
-                    + "' ('" + selectorProcessor.getSelector() + "'), got " + cssBlocks.length + " results");
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Searched CSS selectors for '" + selectorProcessor.getSearchWord()
+                        + "' ('" + selectorProcessor.getSelector() + "'), got " + cssBlocks.length + " results");
+            }
         }
 
+        Map<CssBlock, CssDeclaration> existingDeclarations = findExistingDeclarations(cssBlocks);
+
         for (CssBlock block : cssBlocks) {
-            final Ref<CssDeclaration> destination = Ref.create();
-            CssUtils.processCssDeclarations(block, declaration -> {
-                if (changesBean.getProperty().equals(declaration.getPropertyName())) {
-                    destination.set(declaration);
-                    return false;
-                }
-                return true;
-            });
-            CssDeclaration existingDeclaration = destination.get();
             PsiFile file = block.getContainingFile().getOriginalFile();
-            CssDeclarationPath cssDeclarationPath;
-
-            if (existingDeclaration != null) {
-                // found existing declaration, possibly by resolving mixin
-                cssDeclarationPath = createPath(existingDeclaration, block);
-            } else {
-                // non-existing - create new
-                cssDeclarationPath = createNewPath(file, block);
-            }
+            CssDeclarationPath cssDeclarationPath = createPath(block, existingDeclarations.get(block));
             if (cssDeclarationPath != null) {
                 candidates.add(cssDeclarationPath);
             }
@@ -126,6 +151,83 @@ public class IncomingChangesProcessor {
         return candidates;
     }
 
+    /**
+     * Looks up the changed rule by the fingerprint of its declarations, if reported by the browser. Rules found are
+     * verified against the selector, since unrelated rules may have the same declarations.
+     *
+     * @return the matching blocks, or <tt>null</tt> if no fingerprint was reported or no rule matched it
+     */
+    @Nullable
+    private CssBlock[] findBlocksByFingerprint() {
+        if (changesBean.getRule().isEmpty()) {
+            return null;
+        }
+        CssSelectorSearchProcessor selectorProcessor = new CssSelectorSearchProcessor(changesBean.getSelector());
+        for (CssRuleset ruleset : RuleFingerprintIndex.findRulesets(project, changesBean.getRule(), searchScope)) {
+            CssSelectorList selectorList = ruleset.getSelectorList();
+            if (selectorList != null) {
+                selectorProcessor.execute(selectorList, 0);
+            }
+        }
+        CssBlock[] cssBlocks = selectorProcessor.getBlocks();
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Looked up rule fingerprint " + changesBean.getRule() + " for '" + selectorProcessor.getSelector()
+                    + "', got " + cssBlocks.length + " results");
+        }
+        return cssBlocks.length > 0 ? cssBlocks : null;
+    }
+
+    /**
+     * Looks up the declaration of the changed property in each block, possibly by resolving mixins. The blocks are
+     * independent of each other and are processed concurrently, each in its own read action. Must be called in a
+     * background task; if a read action can not be had because a write action is pending, the lookup is cancelled.
+     *
+     * @param blocks the blocks
+     * @return the existing declaration per block, blocks without one are left out
+     */
+    @NotNull
+    private Map<CssBlock, CssDeclaration> findExistingDeclarations(@NotNull CssBlock[] blocks) {
+        final Map<CssBlock, CssDeclaration> existingDeclarations = new ConcurrentHashMap<>();
+        boolean completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(Arrays.asList(blocks),
+                ProgressManager.getInstance().getProgressIndicator(), true, true, block -> {
+            final Ref<CssDeclaration> destination = Ref.create();
+            CssUtils.processCssDeclarations(block, declaration -> {
+                if (changesBean.getProperty().equals(declaration.getPropertyName())) {
+                    destination.set(declaration);
+                    return false;
+                }
+                return true;
+            });
+            if (!destination.isNull()) {
+                existingDeclarations.put(block, destination.get());
+            }
+            return true;
+        });
+        if (!completed) {
+            // a write action is pending, let the caller start over
+            throw new ProcessCanceledException();
+        }
+        return existingDeclarations;
+    }
+
+    /**
+     * Assembles a path for a block found by selector.
+     *
+     * @param block               the block
+     * @param existingDeclaration the declaration of the changed property in the block, if any
+     * @return a path for an existing or new CSS declaration, or <tt>null</tt> if the containing file or directory can not be determined
+     */
+    @Nullable
+    private CssDeclarationPath createPath(CssBlock block, @Nullable CssDeclaration existingDeclaration) {
+        if (existingDeclaration != null) {
+            // found existing declaration, possibly by resolving mixin
+            return createPath(existingDeclaration, block);
+        }
+        // non-existing - create new
+        return createNewPath(block.getContainingFile().getOriginalFile(), block);
+    }
+
     /**
      * Assembles a path for a given CSS declaration and block.
      *
@@ -179,7 +281,7 @@ public class IncomingChangesProcessor {
     }
 
     /**
-     * Searches the project for all medium lists with same query text as reported by the bean
+     * Looks up all medium lists equivalent to the media query reported by the bean
      *
      * @return all matching media query elements
      */
@@ -187,11 +289,10 @@ public class IncomingChangesProcessor {
     private Set<CssMediumList> findCandidateMediaLists() {
         final Set<CssMediumList> elements = new HashSet<>();
         if (changesBean.getMedia().length() > 0) {
-            CssMediaSearchProcessor mediaProcessor = SearchProcessorCache.getInstance(project).getMediaSearchProcessor(changesBean.getMedia());
-            Set<CssMediumList> mediaLists = mediaProcessor.getMediaLists();
+            List<CssMediumList> mediaLists = MediaQueryIndex.findMediumLists(project, changesBean.getMedia(), searchScope);
 
             if (LOG.isDebugEnabled()) {
-                LOG.debug("Searched CSS media for " + mediaProcessor.getSearchWord() + ", got " + mediaLists.size() + " results");
+                LOG.debug("Looked up CSS media for " + changesBean.getMedia() + ", got " + mediaLists.size() + " results");
             }
 
             elements.addAll(mediaLists);
@@ -209,7 +310,7 @@ public class IncomingChangesProcessor {
         if (changesBean.getFilename().isEmpty()) {
             return Collections.emptySet();
         }
-        return ContainerUtil.newHashSet(FilenameIndex.getFilesByName(project, changesBean.getFilename(), GlobalSearchScope.projectScope(project)));
+        return ContainerUtil.newHashSet(FilenameIndex.getFilesByName(project, changesBean.getFilename(), searchScope));
     }
 
     /**
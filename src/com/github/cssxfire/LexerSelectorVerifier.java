@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire;
+
+import com.intellij.lang.Language;
+import com.intellij.lang.LanguageParserDefinitions;
+import com.intellij.lang.LanguageUtil;
+import com.intellij.lang.ParserDefinition;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * <p>Verifies candidate files for a selector search on lexer level, before any PSI is built. The file is lexed with
+ * the lexer of its language (CSS, Less or Sass), and the expanded selectors of each rule are reconstructed from the
+ * text in front of each <tt>{</tt>. Files where no rule matches are left out of the search; files which can not be
+ * verified reliably (dynamic selectors, unbalanced braces, indented syntax without braces) are always kept.</p>
+ */
+public class LexerSelectorVerifier {
+    private LexerSelectorVerifier() {
+    }
+
+    /**
+     * Narrows <i>scope</i> down to the files containing <i>word</i> and a rule which could match <i>selector</i>.
+     *
+     * @param project       the project
+     * @param selector      the selector
+     * @param word          the word to search for
+     * @param searchContext the search context, see {@link com.intellij.psi.search.UsageSearchContext}
+     * @param scope         the scope to narrow down
+     * @return the verified files
+     */
+    @NotNull
+    public static GlobalSearchScope restrictSearchScope(@NotNull Project project, @NotNull String selector, @NotNull String word,
+                                                        short searchContext, @NotNull GlobalSearchScope scope) {
+        SelectorChainMatcher matcher = new SelectorChainMatcher(selector);
+        List<VirtualFile> files = new ArrayList<>();
+        CssUtils.getPsiSearchHelper(project).processCandidateFilesForText(scope, searchContext, true, word, file -> {
+            if (mayContainRule(project, file, matcher)) {
+                files.add(file);
+            }
+            return true;
+        });
+        return files.isEmpty() ? GlobalSearchScope.EMPTY_SCOPE : GlobalSearchScope.filesScope(project, files);
+    }
+
+    /**
+     * Checks if a file may contain a rule matching the selector.
+     *
+     * @param project the project
+     * @param file    the file
+     * @param matcher the selector matcher
+     * @return <tt>false</tt> only if the file certainly contains no matching rule
+     */
+    static boolean mayContainRule(@NotNull Project project, @NotNull VirtualFile file, @NotNull SelectorChainMatcher matcher) {
+        if ("sass".equalsIgnoreCase(file.getExtension())) {
+            // indented syntax, blocks are not delimited by braces
+            return true;
+        }
+        Language language = LanguageUtil.getFileLanguage(file);
+        ParserDefinition parserDefinition = language != null ? LanguageParserDefinitions.INSTANCE.forLanguage(language) : null;
+        Document document = parserDefinition != null ? FileDocumentManager.getInstance().getDocument(file) : null;
+        if (document == null) {
+            return true;
+        }
+        TokenSet comments = parserDefinition.getCommentTokens();
+        Lexer lexer = parserDefinition.createLexer(project);
+        CharSequence text = document.getCharsSequence();
+        lexer.start(text);
+
+        // expanded selectors of the enclosing blocks, at-rules (@media, @include...) repeat their parent's
+        Deque<Set<String>> blocks = new ArrayDeque<>();
+        StringBuilder prelude = new StringBuilder();
+        int interpolations = 0;
+        boolean anyBlock = false;
+        for (IElementType tokenType; (tokenType = lexer.getTokenType()) != null; lexer.advance()) {
+            if (comments.contains(tokenType)) {
+                continue;
+            }
+            CharSequence token = text.subSequence(lexer.getTokenStart(), lexer.getTokenEnd());
+            if (StringUtil.equals(token, "#{") || StringUtil.equals(token, "@{")) {
+                // interpolation
+                interpolations++;
+                prelude.append(token);
+            } else if (StringUtil.equals(token, "{")) {
+                anyBlock = true;
+                String selector = prelude.toString().trim();
+                prelude.setLength(0);
+                if (SelectorChainMatcher.isDynamic(selector)) {
+                    return true;
+                }
+                Set<String> parentSelectors = blocks.isEmpty() ? Collections.emptySet() : blocks.peek();
+                if (selector.isEmpty() || selector.startsWith("@")) {
+                    blocks.push(parentSelectors);
+                } else {
+                    Set<String> expanded = SelectorChainMatcher.expand(parentSelectors, selector);
+                    if (matcher.matches(expanded)) {
+                        return true;
+                    }
+                    blocks.push(expanded);
+                }
+            } else if (StringUtil.equals(token, "}")) {
+                if (interpolations > 0) {
+                    interpolations--;
+                    prelude.append(token);
+                } else if (blocks.isEmpty()) {
+                    // unbalanced, can't tell
+                    return true;
+                } else {
+                    blocks.pop();
+                    prelude.setLength(0);
+                }
+            } else if (StringUtil.equals(token, ";")) {
+                prelude.setLength(0);
+            } else {
+                prelude.append(token);
+            }
+        }
+        // without any block the lexer may not have understood the file at all
+        return !anyBlock;
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire;
+
+import com.github.cssxfire.index.SelectorTokenIndex;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.css.CssBlock;
+import com.intellij.psi.css.CssRuleset;
+import com.intellij.psi.css.CssSelectorList;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.io.*;
+import gnu.trove.TIntArrayList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * <p>On-disk cache of selector search results, kept per project in the IDE system directory so it survives restarts.
+ * For each selector and set of candidate files, the files searched are stored with their length and a SHA-1 digest
+ * of their content, together with the offsets of the matching rules. The candidate files depend on the scope searched,
+ * so results for different scopes are kept apart.</p>
+ * <p>The cache holds at most {@value #MAX_ENTRIES} entries. When it grows beyond that, entries not used since the
+ * cache was opened are dropped.</p>
+ * <p>Entries are validated lazily. A stored result is used only if the candidate files of the selector (see
+ * {@link SelectorTokenIndex#getCandidateFiles}) are the same files with the same content, and every stored rule still
+ * matches. Otherwise the caller searches again and replaces the entry.</p>
+ */
+public class PersistentCandidateCache {
+    private static final Logger LOG = Logger.getInstance(PersistentCandidateCache.class.getName());
+
+    private static final int VERSION = 3;
+    private static final int MAX_ENTRIES = 5000;
+    private static final Key<Pair<Long, String>> CONTENT_HASH = Key.create("cssxfire.contentHash");
+
+    private static final DataExternalizer<Map<String, CachedFile>> EXTERNALIZER = new DataExternalizer<Map<String, CachedFile>>() {
+        public void save(@NotNull DataOutput out, Map<String, CachedFile> value) throws IOException {
+            DataInputOutputUtil.writeINT(out, value.size());
+            for (Map.Entry<String, CachedFile> entry : value.entrySet()) {
+                IOUtil.writeUTF(out, entry.getKey());
+                IOUtil.writeUTF(out, entry.getValue().hash);
+                int[] offsets = entry.getValue().offsets;
+                DataInputOutputUtil.writeINT(out, offsets.length);
+                for (int offset : offsets) {
+                    DataInputOutputUtil.writeINT(out, offset);
+                }
+            }
+        }
+
+        public Map<String, CachedFile> read(@NotNull DataInput in) throws IOException {
+            int size = DataInputOutputUtil.readINT(in);
+            Map<String, CachedFile> value = new HashMap<>(size);
+            for (int i = 0; i < size; i++) {
+                String url = IOUtil.readUTF(in);
+                String hash = IOUtil.readUTF(in);
+                int[] offsets = new int[DataInputOutputUtil.readINT(in)];
+                for (int j = 0; j < offsets.length; j++) {
+                    offsets[j] = DataInputOutputUtil.readINT(in);
+                }
+                value.put(url, new CachedFile(hash, offsets));
+            }
+            return value;
+        }
+    };
+
+    @NotNull
+    private final Project project;
+    @NotNull
+    private final File file;
+    @Nullable
+    private PersistentHashMap<String, Map<String, CachedFile>> map;
+    private int size;
+    private final Set<String> usedKeys = new HashSet<>();
+
+    public PersistentCandidateCache(@NotNull Project project) {
+        this.project = project;
+        this.file = new File(PathManager.getSystemPath(), "css-x-fire/" + project.getLocationHash() + "/candidates.v" + VERSION);
+    }
+
+    /**
+     * Opens the cache. A cache which can not be read is deleted and created anew.
+     */
+    public synchronized void open() {
+        if (map != null) {
+            return;
+        }
+        for (int version = 1; version < VERSION; version++) {
+            IOUtil.deleteAllFilesStartingWith(new File(file.getParentFile(), "candidates.v" + version));
+        }
+        try {
+            map = createMap();
+            size = countEntries(map);
+        } catch (IOException e) {
+            LOG.info("Unable to open " + file.getPath() + ", recreating", e);
+            closeQuietly();
+            IOUtil.deleteAllFilesStartingWith(file);
+            try {
+                map = createMap();
+                size = 0;
+            } catch (IOException e1) {
+                LOG.warn("Unable to create " + file.getPath() + ", candidates will not be cached", e1);
+            }
+        }
+    }
+
+    private static int countEntries(@NotNull PersistentHashMap<String, Map<String, CachedFile>> map) throws IOException {
+        int[] count = {0};
+        map.processKeysWithExistingMapping(key -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    private void closeQuietly() {
+        if (map != null) {
+            try {
+                map.close();
+            } catch (IOException ignored) {
+            }
+            map = null;
+        }
+    }
+
+    @NotNull
+    private PersistentHashMap<String, Map<String, CachedFile>> createMap() throws IOException {
+        return new PersistentHashMap<>(file, EnumeratorStringDescriptor.INSTANCE, EXTERNALIZER);
+    }
+
+    /**
+     * Closes the cache, flushing it to disk.
+     */
+    public synchronized void close() {
+        if (map == null) {
+            return;
+        }
+        try {
+            map.close();
+        } catch (IOException e) {
+            LOG.warn("Unable to close " + file.getPath(), e);
+        }
+        map = null;
+        usedKeys.clear();
+    }
+
+    /**
+     * Looks up the result of a previous search for <i>selector</i>.
+     *
+     * @param selector       the selector, with whitespace normalized
+     * @param candidateFiles the current candidate files of the selector
+     * @return a processor holding the cached result, or <tt>null</tt> if there is no valid entry
+     */
+    @Nullable
+    public CssSelectorSearchProcessor lookup(@NotNull String selector, @NotNull Set<VirtualFile> candidateFiles) {
+        String key = getKey(selector, candidateFiles);
+        Map<String, CachedFile> cachedFiles = read(key);
+        if (cachedFiles == null || cachedFiles.size() != candidateFiles.size()) {
+            return null;
+        }
+
+        PsiManager psiManager = PsiManager.getInstance(project);
+        CssSelectorSearchProcessor processor = new CssSelectorSearchProcessor(selector);
+        int count = 0;
+        for (VirtualFile candidateFile : candidateFiles) {
+            CachedFile cachedFile = cachedFiles.get(candidateFile.getUrl());
+            if (cachedFile == null || !cachedFile.hash.equals(getContentHash(candidateFile))) {
+                return null;
+            }
+            if (cachedFile.offsets.length == 0) {
+                continue;
+            }
+            PsiFile psiFile = psiManager.findFile(candidateFile);
+            if (psiFile == null) {
+                return null;
+            }
+            for (int offset : cachedFile.offsets) {
+                // the content is the same, but the PSI may still disagree, e.g. after a language level change
+                CssRuleset ruleset = PsiTreeUtil.getParentOfType(psiFile.findElementAt(offset), CssRuleset.class, false);
+                CssSelectorList selectorList = ruleset != null && ruleset.getTextRange().getStartOffset() == offset ? ruleset.getSelectorList() : null;
+                if (selectorList == null) {
+                    return null;
+                }
+                processor.execute(selectorList, 0);
+                count++;
+            }
+        }
+        // each stored rule must still match
+        if (processor.getBlocks().length != count) {
+            return null;
+        }
+        markUsed(key);
+        return processor;
+    }
+
+    /**
+     * Stores the result of a search for a selector.
+     *
+     * @param processor      the processor, processed with all candidates
+     * @param candidateFiles the candidate files searched
+     */
+    public void store(@NotNull CssSelectorSearchProcessor processor, @NotNull Set<VirtualFile> candidateFiles) {
+        Map<VirtualFile, TIntArrayList> offsets = new HashMap<>();
+        for (CssBlock block : processor.getBlocks()) {
+            CssRuleset ruleset = PsiTreeUtil.getParentOfType(block, CssRuleset.class);
+            VirtualFile virtualFile = block.getContainingFile().getVirtualFile();
+            if (ruleset == null || virtualFile == null || !candidateFiles.contains(virtualFile)) {
+                // found outside of the candidates, the entry could never be validated
+                return;
+            }
+            offsets.computeIfAbsent(virtualFile, key -> new TIntArrayList()).add(ruleset.getTextRange().getStartOffset());
+        }
+
+        Map<String, CachedFile> cachedFiles = new HashMap<>(candidateFiles.size());
+        for (VirtualFile candidateFile : candidateFiles) {
+            String hash = getContentHash(candidateFile);
+            if (hash == null) {
+                return;
+            }
+            TIntArrayList fileOffsets = offsets.get(candidateFile);
+            cachedFiles.put(candidateFile.getUrl(), new CachedFile(hash, fileOffsets != null ? fileOffsets.toNativeArray() : ArrayUtil.EMPTY_INT_ARRAY));
+        }
+        write(getKey(processor.getSelector(), candidateFiles), cachedFiles);
+    }
+
+    /**
+     * Get the key of the entry for a selector and set of candidate files.
+     */
+    @NotNull
+    private static String getKey(@NotNull String selector, @NotNull Set<VirtualFile> candidateFiles) {
+        List<String> urls = new ArrayList<>(candidateFiles.size());
+        for (VirtualFile candidateFile : candidateFiles) {
+            urls.add(candidateFile.getUrl());
+        }
+        Collections.sort(urls);
+        return selector + "\n" + digest(StringUtil.join(urls, "\n"));
+    }
+
+    @Nullable
+    private synchronized Map<String, CachedFile> read(@NotNull String key) {
+        if (map == null) {
+            return null;
+        }
+        try {
+            return map.get(key);
+        } catch (IOException e) {
+            LOG.warn("Unable to read " + file.getPath(), e);
+            return null;
+        }
+    }
+
+    private synchronized void markUsed(@NotNull String key) {
+        usedKeys.add(key);
+    }
+
+    private synchronized void write(@NotNull String key, @NotNull Map<String, CachedFile> cachedFiles) {
+        if (map == null) {
+            return;
+        }
+        try {
+            if (!map.containsMapping(key)) {
+                size++;
+            }
+            map.put(key, cachedFiles);
+            usedKeys.add(key);
+            if (size > MAX_ENTRIES) {
+                prune(map);
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to write " + file.getPath(), e);
+        }
+    }
+
+    /**
+     * Drops the entries not used since the cache was opened. If all of them were, usage is forgotten so the next
+     * prune drops those not used from now on.
+     */
+    private void prune(@NotNull PersistentHashMap<String, Map<String, CachedFile>> map) throws IOException {
+        List<String> unusedKeys = new ArrayList<>();
+        map.processKeysWithExistingMapping(key -> {
+            if (!usedKeys.contains(key)) {
+                unusedKeys.add(key);
+            }
+            return true;
+        });
+        for (String key : unusedKeys) {
+            map.remove(key);
+        }
+        size -= unusedKeys.size();
+        if (size > MAX_ENTRIES) {
+            usedKeys.clear();
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Pruned " + unusedKeys.size() + " entries from " + file.getPath());
+        }
+    }
+
+    /**
+     * Gets the length and SHA-1 digest of a file's content, kept with the file until its document is modified.
+     * Unlike {@link StringUtils#contentHash(CharSequence)} every character counts, whitespace included, since
+     * <tt>.a.b</tt> and <tt>.a .b</tt> are different selectors.
+     *
+     * @param file the file
+     * @return the hash, or <tt>null</tt> if the file has no document or its PSI is not up to date
+     */
+    @Nullable
+    private String getContentHash(@NotNull VirtualFile file) {
+        Document document = file.isValid() ? FileDocumentManager.getInstance().getDocument(file) : null;
+        if (document == null || PsiDocumentManager.getInstance(project).isUncommited(document)) {
+            return null;
+        }
+        long modificationStamp = document.getModificationStamp();
+        Pair<Long, String> hash = file.getUserData(CONTENT_HASH);
+        if (hash == null || hash.first != modificationStamp) {
+            hash = Pair.create(modificationStamp, digest(document.getCharsSequence()));
+            file.putUserData(CONTENT_HASH, hash);
+        }
+        return hash.second;
+    }
+
+    @NotNull
+    private static String digest(@NotNull CharSequence text) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            // required of every Java platform
+            throw new IllegalStateException(e);
+        }
+        return text.length() + ":" + StringUtil.toHexString(digest.digest(text.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static class CachedFile {
+        @NotNull
+        private final String hash;
+        @NotNull
+        private final int[] offsets;
+
+        private CachedFile(@NotNull String hash, @NotNull int[] offsets) {
+            this.hash = hash;
+            this.offsets = offsets;
+        }
+    }
+}
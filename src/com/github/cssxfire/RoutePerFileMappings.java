@@ -17,23 +17,94 @@
 package com.github.cssxfire;
 
 import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 public class RoutePerFileMappings {
-    private Map<VirtualFile, String> myMappings = new HashMap<>();
+    private static final String[] ROOT_MAPPING = new String[]{""};
+
+    /**
+     * The mappings and the routes compiled from them, replaced as a whole so readers on other threads always see a
+     * consistent pair.
+     */
+    private volatile Snapshot mySnapshot = new Snapshot(Collections.emptyMap());
 
     public Map<VirtualFile, String> getMappings() {
-        return new HashMap<>(myMappings);
+        return new HashMap<>(mySnapshot.mappings);
     }
 
     public void setMappings(Map<VirtualFile, String> mappings) {
-        myMappings.clear();
-        myMappings.putAll(mappings);
+        mySnapshot = new Snapshot(mappings);
     }
 
     public String getMapping(VirtualFile file) {
-        return myMappings.get(file);
+        return mySnapshot.mappings.get(file);
+    }
+
+    /**
+     * Get the mappings compiled for lookup, with each route split into its path parts and the longest routes first.
+     * The routes are compiled when the mappings are set.
+     *
+     * @return the compiled routes
+     */
+    @NotNull
+    public List<Route> getRoutes() {
+        return mySnapshot.routes;
+    }
+
+    private static class Snapshot {
+        @NotNull
+        private final Map<VirtualFile, String> mappings;
+        @NotNull
+        private final List<Route> routes;
+
+        private Snapshot(@NotNull Map<VirtualFile, String> mappings) {
+            this.mappings = Collections.unmodifiableMap(new HashMap<>(mappings));
+            List<Route> routes = new ArrayList<>(mappings.size());
+            for (Map.Entry<VirtualFile, String> entry : this.mappings.entrySet()) {
+                routes.add(new Route(entry.getKey(), entry.getValue()));
+            }
+            routes.sort(Comparator.comparingInt((Route route) -> route.getParts().length).reversed());
+            this.routes = Collections.unmodifiableList(routes);
+        }
+    }
+
+    /**
+     * A route, mapping a remote path to a local file or directory.
+     */
+    public static class Route {
+        @NotNull
+        private final VirtualFile file;
+        @NotNull
+        private final String route;
+        @NotNull
+        private final String[] parts;
+
+        private Route(@NotNull VirtualFile file, @NotNull String route) {
+            this.file = file;
+            this.route = route;
+            this.parts = "/".equals(route) ? ROOT_MAPPING : route.split("/"); // fix for String.split() inconsistency
+        }
+
+        @NotNull
+        public VirtualFile getFile() {
+            return file;
+        }
+
+        @NotNull
+        public String getRoute() {
+            return route;
+        }
+
+        @NotNull
+        public String[] getParts() {
+            return parts;
+        }
+
+        @Override
+        public String toString() {
+            return route + " -> " + file;
+        }
     }
 }
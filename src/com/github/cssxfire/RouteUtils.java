@@ -19,15 +19,13 @@ package com.github.cssxfire;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.util.ArrayUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Map;
+import java.util.List;
 
 public class RouteUtils {
     private static final Logger LOG = Logger.getInstance(RouteUtils.class.getName());
-    private static final String[] ROOT_MAPPING = new String[]{""};
 
     /**
      * Finds the local file for a given route, if any. This method does not perform any I/O
@@ -39,50 +37,36 @@ public class RouteUtils {
      */
     @Nullable
     public static VirtualFile detectLocalFile(@NotNull final Project project, @NotNull final String filePath) {
-        final RoutePerFileMappings routes = CssXFireSettings.getInstance(project).getRoutes();
+        final List<RoutePerFileMappings.Route> routes = CssXFireSettings.getInstance(project).getRoutes().getRoutes();
         String[] parts = filePath.split("/");
-        Map<VirtualFile, String> mappings = routes.getMappings();
         if (LOG.isDebugEnabled()) {
-            LOG.debug("Detect local file, path: " + filePath + " routes: " + mappings);
+            LOG.debug("Detect local file, path: " + filePath + " routes: " + routes);
         }
 
-        String[] longestMatch = ArrayUtil.EMPTY_STRING_ARRAY;
-        VirtualFile bestMatch = null;
-        String bestRoute = null;
-
-        for (Map.Entry<VirtualFile, String> entry : mappings.entrySet()) {
-            VirtualFile file = entry.getKey();
-            String route = entry.getValue();
-            if (filePath.equals(route)) {
+        RoutePerFileMappings.Route bestMatch = null;
+        for (RoutePerFileMappings.Route route : routes) {
+            if (filePath.equals(route.getRoute())) {
                 // full match
                 if (LOG.isDebugEnabled()) {
-                    LOG.debug("Full match, route: " + route + ", file: " + file);
+                    LOG.debug("Full match, route: " + route.getRoute() + ", file: " + route.getFile());
                 }
-                return file;
-            }
-            if (!file.isDirectory()) {
-                continue;
+                return route.getFile();
             }
-            String[] routeParts = "/".equals(route) ? ROOT_MAPPING : route.split("/"); // fix for String.split() inconsistency
-            if (routeParts.length <= parts.length && routeParts.length > longestMatch.length) {
-                if (startsWith(parts, routeParts)) {
-                    longestMatch = routeParts;
-                    bestMatch = file;
-                    bestRoute = route;
-                }
+            // routes are sorted longest first, the first directory matching is the best match
+            if (bestMatch == null && route.getFile().isDirectory() && route.getParts().length > 0 && startsWith(parts, route.getParts())) {
+                bestMatch = route;
             }
         }
 
-        if (longestMatch.length == 0) {
+        if (bestMatch == null) {
             // no route matched
             LOG.debug("No match");
             return null;
         }
 
-        //noinspection ConstantConditions
-        VirtualFile virtualFile = bestMatch.findFileByRelativePath(filePath.substring(bestRoute.length()));
+        VirtualFile virtualFile = bestMatch.getFile().findFileByRelativePath(filePath.substring(bestMatch.getRoute().length()));
         if (LOG.isDebugEnabled()) {
-            LOG.debug("Partial match, route: " + bestRoute + ", best match: " + bestMatch + ", local file: " + virtualFile);
+            LOG.debug("Partial match, route: " + bestMatch.getRoute() + ", best match: " + bestMatch.getFile() + ", local file: " + virtualFile);
         }
         return virtualFile;
     }
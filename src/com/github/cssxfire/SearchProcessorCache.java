@@ -16,34 +16,45 @@
 
 package com.github.cssxfire;
 
+import com.github.cssxfire.index.SelectorTokenIndex;
+import com.github.cssxfire.index.StylesheetHashIndex;
+import com.github.cssxfire.resolve.ResolveCache;
 import com.intellij.openapi.components.ProjectComponent;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.PsiTreeChangeAdapter;
 import com.intellij.psi.PsiTreeChangeEvent;
 import com.intellij.psi.PsiTreeChangeListener;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.PsiSearchHelper;
+import com.intellij.psi.search.TextOccurenceProcessor;
 import com.intellij.psi.search.UsageSearchContext;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Project search cache.
  */
 public class SearchProcessorCache implements ProjectComponent {
-    private final Map<String, CssSelectorSearchProcessor> selectorProcessorCache = new ConcurrentHashMap<>();
-    private final Map<String, CssMediaSearchProcessor> mediaProcessorCache = new ConcurrentHashMap<>();
+    private final Map<Pair<String, GlobalSearchScope>, CssSelectorSearchProcessor> selectorProcessorCache = new ConcurrentHashMap<>();
+    private final Map<String, VirtualFile> matchedStylesheets = new ConcurrentHashMap<>();
 
-    private final GlobalSearchScope searchScope;
+    private volatile GlobalSearchScope searchScope;
     private final short searchContext = UsageSearchContext.ANY;
     private final Project project;
+    private final PersistentCandidateCache candidateCache;
 
     public SearchProcessorCache(Project project) {
         this.project = project;
-        this.searchScope = GlobalSearchScope.projectScope(project);
+        this.candidateCache = new PersistentCandidateCache(project);
     }
 
     /**
@@ -56,9 +67,57 @@ public class SearchProcessorCache implements ProjectComponent {
         return project.getComponent(SearchProcessorCache.class);
     }
 
+    /**
+     * Get the scope searched when no reduce strategy restricts it. The scope is compiled from the search
+     * settings on first use and kept until {@link #resetSearchScope()}.
+     *
+     * @return the scope of source stylesheets in the project
+     */
+    @NotNull
+    public GlobalSearchScope getSearchScope() {
+        GlobalSearchScope scope = searchScope;
+        if (scope == null) {
+            scope = StylesheetSearchScope.create(project);
+            searchScope = scope;
+        }
+        return scope;
+    }
+
+    /**
+     * Drops the compiled search scope, and any processors searched with it, and resolve results. Should be called
+     * when search settings change.
+     */
+    public void resetSearchScope() {
+        searchScope = null;
+        matchedStylesheets.clear();
+        clearCaches();
+        ResolveCache.getInstance(project).invalidate();
+    }
+
+    /**
+     * Finds the project stylesheet with the content the browser loaded. The browser keeps reporting the hash of
+     * the content it loaded until the page is reloaded, while the project file no longer has that hash once a
+     * change is written to it, so matches are remembered for the rest of the session. Only stylesheets within the
+     * {@link #getSearchScope() search scope} are matched, honoring search roots, excludes and skipped minified files.
+     *
+     * @param hash     the content hash reported by the browser
+     * @param filename the file name reported by the browser
+     * @return the matching stylesheet, or <tt>null</tt> if there is no single match
+     */
+    @Nullable
+    public VirtualFile findStylesheet(@NotNull String hash, @NotNull String filename) {
+        GlobalSearchScope scope = getSearchScope();
+        VirtualFile file = StylesheetHashIndex.findStylesheet(project, hash, filename, scope);
+        if (file != null) {
+            matchedStylesheets.put(hash, file);
+            return file;
+        }
+        file = matchedStylesheets.get(hash);
+        return file != null && file.isValid() && scope.contains(file) ? file : null;
+    }
+
     private void clearCaches() {
         selectorProcessorCache.clear();
-        mediaProcessorCache.clear();
     }
 
     /**
@@ -70,52 +129,79 @@ public class SearchProcessorCache implements ProjectComponent {
      */
     @NotNull
     public CssSelectorSearchProcessor getSelectorSearchProcessor(@NotNull String selector) {
-        CssSelectorSearchProcessor selectorProcessor = selectorProcessorCache.get(selector);
+        return getSelectorSearchProcessor(selector, getSearchScope());
+    }
+
+    /**
+     * Gets a new or cached search processor for given selector, processed with candidates within <i>scope</i> only.
+     * Results are also cached on disk, and reused after a restart as long as the candidate files are unchanged.
+     *
+     * @param selector the selector to search for
+     * @param scope    the scope to search
+     * @return a {@link CssSelectorSearchProcessor} instance
+     */
+    @NotNull
+    public CssSelectorSearchProcessor getSelectorSearchProcessor(@NotNull String selector, @NotNull GlobalSearchScope scope) {
+        Pair<String, GlobalSearchScope> key = Pair.create(selector, scope);
+        CssSelectorSearchProcessor selectorProcessor = selectorProcessorCache.get(key);
         if (selectorProcessor != null) {
             return selectorProcessor;
         }
 
         selectorProcessor = new CssSelectorSearchProcessor(selector);
-        PsiSearchHelper helper = CssUtils.getPsiSearchHelper(project);
-        helper.processElementsWithWord(selectorProcessor, searchScope, selectorProcessor.getSearchWord(), searchContext, true);
+        // only files containing every token of the selector can match, don't search the others for the last word
+        Set<VirtualFile> candidateFiles = SelectorTokenIndex.getCandidateFiles(project, selectorProcessor.getSelector(), scope);
+        CssSelectorSearchProcessor cachedProcessor = candidateFiles != null
+                ? candidateCache.lookup(selectorProcessor.getSelector(), candidateFiles) : null;
+        if (cachedProcessor != null) {
+            selectorProcessor = cachedProcessor;
+        } else {
+            GlobalSearchScope candidateScope = candidateFiles == null ? scope
+                    : candidateFiles.isEmpty() ? GlobalSearchScope.EMPTY_SCOPE : GlobalSearchScope.filesScope(project, candidateFiles);
+            // and only files with a matching rule on lexer level are worth building PSI for
+            candidateScope = LexerSelectorVerifier.restrictSearchScope(project, selectorProcessor.getSelector(),
+                    selectorProcessor.getSearchWord(), searchContext, candidateScope);
+            processElementsWithWord(selectorProcessor, candidateScope, selectorProcessor.getSearchWord());
+            if (candidateFiles != null) {
+                candidateCache.store(selectorProcessor, candidateFiles);
+            }
+        }
 
-        selectorProcessorCache.put(selector, selectorProcessor);
+        selectorProcessorCache.put(key, selectorProcessor);
 
         return selectorProcessor;
     }
 
     /**
-     * Gets a new or cached search processor for given media query. In either case the returned processor has
-     * been processed with candidates in the project.
+     * Searches for occurrences of a word. Candidate files are processed concurrently by the search helper when
+     * running under a progress indicator, so one is provided if the caller has none. The processors are thread safe.
      *
-     * @param media the media query to search for
-     * @return a {@link CssMediaSearchProcessor} instance
+     * @param processor the processor
+     * @param scope     the scope to search
+     * @param word      the word to search for
      */
-    @NotNull
-    public CssMediaSearchProcessor getMediaSearchProcessor(@NotNull String media) {
-        CssMediaSearchProcessor mediaProcessor = mediaProcessorCache.get(media);
-        if (mediaProcessor != null) {
-            return mediaProcessor;
-        }
-
-        mediaProcessor = new CssMediaSearchProcessor(media);
+    private void processElementsWithWord(@NotNull TextOccurenceProcessor processor, @NotNull GlobalSearchScope scope, @NotNull String word) {
         PsiSearchHelper helper = CssUtils.getPsiSearchHelper(project);
-        helper.processElementsWithWord(mediaProcessor, searchScope, mediaProcessor.getSearchWord(), searchContext, true);
-
-        mediaProcessorCache.put(media, mediaProcessor);
-
-        return mediaProcessor;
+        Runnable search = () -> helper.processElementsWithWord(processor, scope, word, searchContext, true);
+        if (ProgressManager.getInstance().getProgressIndicator() != null) {
+            search.run();
+        } else {
+            ProgressManager.getInstance().runProcess(search, new EmptyProgressIndicator());
+        }
     }
 
     public void projectOpened() {
         // Attach cache invalidator
         PsiManager.getInstance(project).addPsiTreeChangeListener(myCacheInvalidator);
+        candidateCache.open();
     }
 
     public void projectClosed() {
         // Detach cache invalidator
         PsiManager.getInstance(project).removePsiTreeChangeListener(myCacheInvalidator);
         clearCaches();
+        matchedStylesheets.clear();
+        candidateCache.close();
     }
 
     public void initComponent() {
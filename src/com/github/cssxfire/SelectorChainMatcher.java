@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Matches a selector, as reported by Firebug, against the expanded selectors of a possibly nested rule. Expanded
+ * selectors have the selectors of the enclosing rules applied, so <tt>.nav { &amp;:hover, .item { } }</tt> expands to
+ * <tt>.nav:hover</tt> and <tt>.nav .item</tt>. The expansion is built from PSI (see
+ * {@link CssUtils#getExpandedSelectors(com.intellij.psi.css.CssRuleset)}) or from lexer tokens (see
+ * {@link LexerSelectorVerifier}).</p>
+ */
+public class SelectorChainMatcher {
+    private static final Pattern DYNAMIC_SELECTOR_PATTERN = Pattern.compile("&[-_a-zA-Z0-9]|[#@]\\{");
+
+    @NotNull
+    private final Set<String> selectors;
+
+    public SelectorChainMatcher(@NotNull String selector) {
+        this.selectors = new HashSet<>(splitSelectorList(selector));
+    }
+
+    /**
+     * Checks if a selector is built from parts in a way that can not be matched as text, i.e. by suffixing the parent
+     * selector (<tt>&amp;-item</tt>) or by interpolation.
+     *
+     * @param selector the selector text
+     * @return <tt>true</tt> if the selector is dynamic
+     */
+    public static boolean isDynamic(@NotNull CharSequence selector) {
+        return DYNAMIC_SELECTOR_PATTERN.matcher(selector).find();
+    }
+
+    /**
+     * Checks if a rule could reference the selector to match, i.e. if the comma separated parts of the selector are
+     * exactly the expanded selectors of the rule. A change reported for <tt>h1</tt> does not match a rule for
+     * <tt>h1, h2</tt>, since applying it there would change <tt>h2</tt> as well.
+     *
+     * @param expandedSelectors the expanded selectors of the rule
+     * @return true if and only if the rule matches the selector
+     */
+    public boolean matches(@NotNull Set<String> expandedSelectors) {
+        return !selectors.isEmpty() && selectors.equals(expandedSelectors);
+    }
+
+    /**
+     * Expands the selector of a rule with the expanded selectors of its enclosing rule. A part containing
+     * <tt>&amp;</tt> has it replaced by each parent selector, other parts become descendants of each parent selector.
+     *
+     * @param parentSelectors the expanded selectors of the enclosing rule, or an empty set for a top level rule
+     * @param selector        the selector text of the rule
+     * @return the expanded selectors, whitespace normalized
+     */
+    @NotNull
+    public static Set<String> expand(@NotNull Set<String> parentSelectors, @NotNull String selector) {
+        List<String> parts = splitSelectorList(selector);
+        if (parentSelectors.isEmpty()) {
+            return new LinkedHashSet<>(parts);
+        }
+        Set<String> expanded = new LinkedHashSet<>();
+        for (String parent : parentSelectors) {
+            for (String part : parts) {
+                expanded.add(StringUtils.normalizeWhitespace(part.indexOf('&') != -1 ? part.replace("&", parent) : parent + " " + part));
+            }
+        }
+        return expanded;
+    }
+
+    /**
+     * Splits a selector list on commas, except for commas within parentheses or brackets (<tt>:not(a, b)</tt>).
+     *
+     * @param selector the selector list
+     * @return the whitespace normalized, non-empty parts
+     */
+    @NotNull
+    private static List<String> splitSelectorList(@NotNull String selector) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i <= selector.length(); i++) {
+            char c = i < selector.length() ? selector.charAt(i) : ',';
+            if (c == '(' || c == '[') {
+                depth++;
+            } else if ((c == ')' || c == ']') && depth > 0) {
+                depth--;
+            } else if (c == ',' && (depth == 0 || i == selector.length())) {
+                String part = StringUtils.normalizeWhitespace(selector.substring(start, i));
+                if (!part.isEmpty()) {
+                    parts.add(part);
+                }
+                start = i + 1;
+            }
+        }
+        return parts.isEmpty() ? Collections.emptyList() : parts;
+    }
+}
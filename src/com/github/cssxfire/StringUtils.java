@@ -23,6 +23,7 @@ import org.jetbrains.annotations.Nullable;
 import java.io.CharArrayWriter;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.*;
 
 public class StringUtils {
     private static final Logger LOG = Logger.getInstance(StringUtils.class.getName());
@@ -87,6 +88,82 @@ public class StringUtils {
         return writer.toString();
     }
 
+    /**
+     * Brings a media query list into a canonical form, so that equivalent queries compare equal regardless of
+     * how they are written: lower case, no whitespace within parentheses, the conditions of each query sorted
+     * after its media type, and the queries of the list sorted. <tt>"screen and (MAX-WIDTH: 600px), print"</tt>
+     * and <tt>"print,screen and (max-width:600px)"</tt> both become <tt>"print,screen and (max-width:600px)"</tt>.
+     *
+     * @param media the media query list
+     * @return the canonical form, or an empty string if <i>media</i> is blank
+     */
+    @NotNull
+    public static String canonicalizeMedia(@NotNull String media) {
+        // lower case, whitespace collapsed outside and removed inside parentheses, each parenthesized condition a word
+        StringBuilder normalized = new StringBuilder(media.length());
+        int depth = 0;
+        for (char c : media.toLowerCase(Locale.US).toCharArray()) {
+            if (c == '(' && depth++ == 0 || c == ',' && depth == 0) {
+                normalized.append(' ');
+            }
+            if (!Character.isWhitespace(c)) {
+                normalized.append(c);
+            } else if (depth == 0) {
+                normalized.append(' ');
+            }
+            if (c == ')' && depth > 0 && --depth == 0 || c == ',' && depth == 0) {
+                normalized.append(' ');
+            }
+        }
+
+        List<String> queries = new ArrayList<>();
+        for (String query : normalized.toString().split(",")) {
+            List<String> words = new ArrayList<>(Arrays.asList(query.trim().split(" +")));
+            words.removeIf(word -> word.isEmpty() || "and".equals(word));
+            if (words.isEmpty()) {
+                continue;
+            }
+            // "only screen", "not print" and the like stay in front, conditions are sorted
+            int type = 0;
+            while (type < words.size() && !words.get(type).startsWith("(")) {
+                type++;
+            }
+            List<String> conditions = words.subList(type, words.size());
+            Collections.sort(conditions);
+            StringBuilder canonical = new StringBuilder();
+            for (int i = 0; i < words.size(); i++) {
+                if (i > 0) {
+                    canonical.append(i >= type ? " and " : " ");
+                }
+                canonical.append(words.get(i));
+            }
+            queries.add(canonical.toString());
+        }
+        Collections.sort(queries);
+        return String.join(",", queries);
+    }
+
+    /**
+     * Computes a 32 bit FNV-1a hash of <i>s</i>, leaving out all whitespace, so the hash does not depend on line
+     * separators or indentation. Must be kept in line with <tt>hash</tt> in the Firefox extension.
+     *
+     * @param s the stylesheet content
+     * @return the hash as 8 hex digits
+     */
+    @NotNull
+    public static String contentHash(@NotNull CharSequence s) {
+        int hash = 0x811c9dc5;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f') {
+                continue;
+            }
+            hash ^= c;
+            hash *= 0x01000193;
+        }
+        return String.format("%08x", hash);
+    }
+
     public static String trimEnd(String input, String delim) {
         int ix = input.indexOf(delim);
         if (ix == -1) {
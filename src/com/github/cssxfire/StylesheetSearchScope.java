@@ -0,0 +1,248 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.DelegatingGlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.PatternUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Project scope narrowed down to the configured search roots, minus files matching any of the exclude patterns.
+ * Roots are paths relative to the project base dir. Exclude patterns are file masks (<tt>*</tt> and <tt>?</tt>)
+ * matched against each directory or file name, and against each trailing part of the project relative path,
+ * so both <tt>node_modules</tt> and <tt>dist/*.css</tt> work as expected.</p>
+ * <p>Minified and oversized stylesheets are left out unless configured otherwise. Parsing a megabyte of CSS on a
+ * single line to find one rule costs more than all other files together, and such files are rarely edited by hand.
+ * The indices never build PSI for them either, whatever the setting.</p>
+ */
+public class StylesheetSearchScope extends DelegatingGlobalSearchScope {
+    private static final Logger LOG = Logger.getInstance(StylesheetSearchScope.class.getName());
+
+    private static final Key<Pair<Long, Boolean>> MINIFIED = Key.create("cssxfire.minified");
+    private static final long OVERSIZED_LENGTH = 1024 * 1024;
+    private static final int SAMPLE_LENGTH = 16 * 1024;
+    private static final int MIN_AVERAGE_LINE_LENGTH = 500;
+
+    @NotNull
+    private final VirtualFile[] roots;
+    @NotNull
+    private final Pattern[] excludes;
+    @Nullable
+    private final VirtualFile baseDir;
+    private final boolean skipMinified;
+
+    private StylesheetSearchScope(@NotNull GlobalSearchScope baseScope, @Nullable VirtualFile baseDir,
+                                  @NotNull List<VirtualFile> roots, @NotNull List<String> excludes, boolean skipMinified) {
+        super(baseScope, roots, excludes, skipMinified);
+        this.baseDir = baseDir;
+        this.skipMinified = skipMinified;
+        this.roots = roots.toArray(VirtualFile.EMPTY_ARRAY);
+        this.excludes = new Pattern[excludes.size()];
+        for (int i = 0; i < this.excludes.length; i++) {
+            this.excludes[i] = PatternUtil.fromMask(excludes.get(i));
+        }
+    }
+
+    /**
+     * Compiles the search settings of the project into a scope.
+     *
+     * @param project the project
+     * @return the project scope if nothing is configured, otherwise a {@link StylesheetSearchScope}
+     */
+    @NotNull
+    public static GlobalSearchScope create(@NotNull Project project) {
+        CssXFireSettings settings = CssXFireSettings.getInstance(project);
+        GlobalSearchScope projectScope = GlobalSearchScope.projectScope(project);
+        VirtualFile baseDir = project.getBaseDir();
+        List<VirtualFile> roots = findRoots(settings, baseDir);
+        List<String> excludes = split(settings.getSearchExcludes());
+
+        if (roots.isEmpty() && excludes.isEmpty() && !settings.isSkipMinified()) {
+            return projectScope;
+        }
+        return new StylesheetSearchScope(projectScope, baseDir, roots, excludes, settings.isSkipMinified());
+    }
+
+    /**
+     * Compiles the search roots of the project into a scope for generated stylesheets, which are looked up to map
+     * changes back to their sources. Excludes and skipping minified files don't apply, since generated stylesheets
+     * are usually what they leave out.
+     *
+     * @param project the project
+     * @return the project scope if no roots are configured, otherwise a {@link StylesheetSearchScope}
+     */
+    @NotNull
+    public static GlobalSearchScope createForGenerated(@NotNull Project project) {
+        GlobalSearchScope projectScope = GlobalSearchScope.projectScope(project);
+        VirtualFile baseDir = project.getBaseDir();
+        List<VirtualFile> roots = findRoots(CssXFireSettings.getInstance(project), baseDir);
+
+        if (roots.isEmpty()) {
+            return projectScope;
+        }
+        return new StylesheetSearchScope(projectScope, baseDir, roots, Collections.emptyList(), false);
+    }
+
+    @NotNull
+    private static List<VirtualFile> findRoots(@NotNull CssXFireSettings settings, @Nullable VirtualFile baseDir) {
+        List<VirtualFile> roots = new ArrayList<>();
+        for (String root : split(settings.getSearchRoots())) {
+            VirtualFile file = baseDir != null ? baseDir.findFileByRelativePath(StringUtil.trimStart(root, "/")) : null;
+            if (file != null && file.isDirectory()) {
+                roots.add(file);
+            }
+        }
+        return roots;
+    }
+
+    @NotNull
+    private static List<String> split(@NotNull String value) {
+        List<String> result = new ArrayList<>();
+        for (String part : StringUtil.split(value, ";")) {
+            part = part.trim();
+            if (!part.isEmpty()) {
+                result.add(part);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean contains(@NotNull VirtualFile file) {
+        return super.contains(file) && isUnderRoots(file) && !isExcluded(file) && !(skipMinified && isMinified(file));
+    }
+
+    /**
+     * Checks if a stylesheet is minified or oversized. A CSS file is considered minified if its name says so
+     * (<tt>*.min.css</tt>) or if the lines at its start are very long on average. Only the first
+     * {@value #SAMPLE_LENGTH} bytes are read, and the result is kept with the file until it is modified.
+     *
+     * @param file the file
+     * @return <tt>true</tt> if the file is a minified or oversized stylesheet
+     */
+    public static boolean isMinified(@NotNull VirtualFile file) {
+        if (file.isDirectory() || !"css".equalsIgnoreCase(file.getExtension())) {
+            return false;
+        }
+        long modificationStamp = file.getModificationStamp();
+        Pair<Long, Boolean> minified = file.getUserData(MINIFIED);
+        if (minified == null || minified.first != modificationStamp) {
+            minified = Pair.create(modificationStamp, detectMinified(file));
+            file.putUserData(MINIFIED, minified);
+        }
+        return minified.second;
+    }
+
+    /**
+     * Checks if a stylesheet is minified or oversized, like {@link #isMinified(VirtualFile)}, from content already
+     * loaded. Used by the indices, which must not build PSI for such files.
+     *
+     * @param file    the file
+     * @param content the content of the file
+     * @return <tt>true</tt> if the file is a minified or oversized stylesheet
+     */
+    public static boolean isMinified(@NotNull VirtualFile file, @NotNull byte[] content) {
+        return "css".equalsIgnoreCase(file.getExtension())
+                && isMinified(file.getName(), content.length, content, Math.min(content.length, SAMPLE_LENGTH));
+    }
+
+    private static boolean detectMinified(@NotNull VirtualFile file) {
+        if (file.getLength() > OVERSIZED_LENGTH || file.getLength() <= SAMPLE_LENGTH) {
+            return isMinified(file.getName(), file.getLength(), ArrayUtil.EMPTY_BYTE_ARRAY, 0);
+        }
+        byte[] sample;
+        try (InputStream in = file.getInputStream()) {
+            sample = FileUtil.loadBytes(in, SAMPLE_LENGTH);
+        } catch (IOException e) {
+            LOG.debug("Unable to read " + file.getPath(), e);
+            return false;
+        }
+        return isMinified(file.getName(), file.getLength(), sample, sample.length);
+    }
+
+    private static boolean isMinified(@NotNull String name, long length, @NotNull byte[] sample, int sampleLength) {
+        if (length > OVERSIZED_LENGTH || StringUtil.endsWithIgnoreCase(name, ".min.css")) {
+            return true;
+        }
+        if (length <= SAMPLE_LENGTH) {
+            // small enough to parse anyway
+            return false;
+        }
+        int lines = 1;
+        for (int i = 0; i < sampleLength; i++) {
+            if (sample[i] == '\n') {
+                lines++;
+            }
+        }
+        return sampleLength / lines >= MIN_AVERAGE_LINE_LENGTH;
+    }
+
+    private boolean isUnderRoots(@NotNull VirtualFile file) {
+        if (roots.length == 0) {
+            return true;
+        }
+        for (VirtualFile root : roots) {
+            if (VfsUtilCore.isAncestor(root, file, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isExcluded(@NotNull VirtualFile file) {
+        if (excludes.length == 0) {
+            return false;
+        }
+        String path = baseDir != null ? VfsUtilCore.getRelativePath(file, baseDir, '/') : null;
+        if (path == null) {
+            path = file.getPath();
+        }
+        for (Pattern exclude : excludes) {
+            int start = 0;
+            while (start < path.length()) {
+                int end = path.indexOf('/', start);
+                String name = end == -1 ? path.substring(start) : path.substring(start, end);
+                if (exclude.matcher(name).matches() || exclude.matcher(path).region(start, path.length()).matches()) {
+                    return true;
+                }
+                if (end == -1) {
+                    break;
+                }
+                start = end + 1;
+            }
+        }
+        return false;
+    }
+}
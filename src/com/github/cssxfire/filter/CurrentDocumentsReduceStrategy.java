@@ -21,11 +21,12 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * <p>Reduces the candidates down to the elements which are in files currently opened in editor(s).
@@ -36,32 +37,26 @@ public class CurrentDocumentsReduceStrategy implements ReduceStrategy<CssDeclara
 
     @NotNull
     private final Project project;
+    @NotNull
+    private final Set<VirtualFile> openFiles;
 
     public CurrentDocumentsReduceStrategy(@NotNull Project project) {
         this.project = project;
-    }
-
-    public void reduce(@NotNull Collection<CssDeclarationPath> candidates) {
+        this.openFiles = new HashSet<>(Arrays.asList(FileEditorManager.getInstance(project).getOpenFiles()));
         if (LOG.isDebugEnabled()) {
-            LOG.debug("Reducing " + candidates.size() + " candidates for currently opened documents");
-        }
-        if (candidates.isEmpty()) {
-            // nothing to do here
-            return;
+            LOG.debug("Reducing candidates for " + openFiles.size() + " currently opened documents");
         }
+    }
 
-        VirtualFile[] openFiles = FileEditorManager.getInstance(project).getOpenFiles();
-        List<CssDeclarationPath> matches = new ArrayList<>();
-        for (CssDeclarationPath candidate : candidates) {
-            VirtualFile candidateFile = candidate.getFileNode().getVirtualFile();
-            for (VirtualFile openFile : openFiles) {
-                if (candidateFile != null && candidateFile.equals(openFile)) {
-                    // this candidate is is a currently opened file
-                    matches.add(candidate);
-                }
-            }
-        }
+    @NotNull
+    @Override
+    public GlobalSearchScope restrictSearchScope(@NotNull GlobalSearchScope scope) {
+        return scope.intersectWith(GlobalSearchScope.filesScope(project, openFiles));
+    }
 
-        candidates.retainAll(matches);
+    public boolean accept(@NotNull CssDeclarationPath candidate) {
+        // is this candidate a currently opened file?
+        VirtualFile candidateFile = candidate.getFileNode().getVirtualFile();
+        return candidateFile != null && openFiles.contains(candidateFile);
     }
 }
@@ -18,12 +18,11 @@ package com.github.cssxfire.filter;
 
 import com.github.cssxfire.tree.CssDeclarationPath;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-
 /**
  * <p>Reduces the candidates down to the elements which matches the given filename. If the collection is
  * empty this reducer does nothing.
@@ -35,29 +34,26 @@ public class FileReduceStrategy implements ReduceStrategy<CssDeclarationPath> {
     private static final Logger LOG = Logger.getInstance(FileReduceStrategy.class.getName());
 
     @NotNull
-    private String filename;
+    private final Project project;
+    @NotNull
+    private final String filename;
 
-    public FileReduceStrategy(@NotNull String filename) {
+    public FileReduceStrategy(@NotNull Project project, @NotNull String filename) {
+        this.project = project;
         this.filename = filename;
-    }
-
-    public void reduce(@NotNull Collection<CssDeclarationPath> candidates) {
         if (LOG.isDebugEnabled()) {
-            LOG.debug("Reducing " + candidates.size() + " candidates for filename: " + filename);
-        }
-        if (candidates.isEmpty()) {
-            // nothing to do here
-            return;
+            LOG.debug("Reducing candidates for filename: " + filename);
         }
+    }
 
-        List<CssDeclarationPath> matches = new ArrayList<>();
-        for (CssDeclarationPath candidate : candidates) {
-            if (filename.equals(candidate.getFileNode().getFilename())) {
-                // filename matches candidate file
-                matches.add(candidate);
-            }
-        }
+    @NotNull
+    @Override
+    public GlobalSearchScope restrictSearchScope(@NotNull GlobalSearchScope scope) {
+        return scope.intersectWith(GlobalSearchScope.filesScope(project, FilenameIndex.getVirtualFilesByName(project, filename, scope)));
+    }
 
-        candidates.retainAll(matches);
+    public boolean accept(@NotNull CssDeclarationPath candidate) {
+        // filename matches candidate file
+        return filename.equals(candidate.getFileNode().getFilename());
     }
 }
@@ -21,10 +21,6 @@ import com.github.cssxfire.tree.CssDeclarationPath;
 import com.intellij.openapi.diagnostic.Logger;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-
 /**
  * <p>Reduces the candidates down to the elements (selectors) which matches the media query.
  * If the collection is empty this reducer does nothing.
@@ -36,30 +32,17 @@ public class MediaReduceStrategy implements ReduceStrategy<CssDeclarationPath> {
     private static final Logger LOG = Logger.getInstance(MediaReduceStrategy.class.getName());
 
     @NotNull
-    private String media;
+    private final String media;
 
     public MediaReduceStrategy(@NotNull String media) {
-        this.media = media;
-    }
-
-    public void reduce(@NotNull Collection<CssDeclarationPath> candidates) {
+        this.media = StringUtils.canonicalizeMedia(media);
         if (LOG.isDebugEnabled()) {
-            LOG.debug("Reducing " + candidates.size() + " candidates for media: " + media);
-        }
-        if (candidates.isEmpty()) {
-            // nothing to do here
-            return;
-        }
-
-        List<CssDeclarationPath> matches = new ArrayList<>();
-        for (CssDeclarationPath candidate : candidates) {
-            String candidateMedia = candidate.getSelectorNode().getMedia();
-            if (StringUtils.equalsNormalizeWhitespace(media, candidateMedia)) {
-                // media query matches candidate selector
-                matches.add(candidate);
-            }
+            LOG.debug("Reducing candidates for media: " + media);
         }
+    }
 
-        candidates.retainAll(matches);
+    public boolean accept(@NotNull CssDeclarationPath candidate) {
+        // media query matches candidate selector
+        return media.equals(StringUtils.canonicalizeMedia(candidate.getSelectorNode().getMedia()));
     }
 }
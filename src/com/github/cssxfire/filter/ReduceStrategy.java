@@ -16,10 +16,38 @@
 
 package com.github.cssxfire.filter;
 
+import com.intellij.psi.search.GlobalSearchScope;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
 
 public interface ReduceStrategy<T> {
-    void reduce(@NotNull Collection<T> candidates);
+    /**
+     * Tests a single candidate. Any keys needed for the test should be computed once, when the strategy is created.
+     *
+     * @param candidate the candidate
+     * @return <tt>true</tt> if the candidate should be kept
+     */
+    boolean accept(@NotNull T candidate);
+
+    /**
+     * Removes all candidates not accepted by this strategy, in a single pass.
+     *
+     * @param candidates the candidates to reduce
+     */
+    default void reduce(@NotNull Collection<T> candidates) {
+        candidates.removeIf(candidate -> !accept(candidate));
+    }
+
+    /**
+     * Narrows the scope used when searching the project for candidates. Only files that could survive
+     * {@link #reduce(Collection)} need to be searched at all.
+     *
+     * @param scope the scope to restrict
+     * @return the restricted scope, or <i>scope</i> itself if this strategy can not tell up front
+     */
+    @NotNull
+    default GlobalSearchScope restrictSearchScope(@NotNull GlobalSearchScope scope) {
+        return scope;
+    }
 }
@@ -22,9 +22,11 @@ import com.github.cssxfire.tree.CssDeclarationPath;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class ReduceStrategyManager {
@@ -47,7 +49,7 @@ public class ReduceStrategyManager {
         }
         if (CssXFireSettings.getInstance(project).isFileReduce()) {
             // Reduce for file is checked
-            reduceChain.add(new FileReduceStrategy(bean.getFilename()));
+            reduceChain.add(new FileReduceStrategy(project, bean.getFilename()));
         }
         if (CssXFireSettings.getInstance(project).isCurrentDocumentsReduce()) {
             // Reduce for currently opened files (documents)
@@ -57,23 +59,56 @@ public class ReduceStrategyManager {
             // Use routes is checked
             VirtualFile projectBaseDir = project.getBaseDir();
             if (projectBaseDir != null) {
-                reduceChain.add(new UrlReduceStrategy(projectBaseDir + bean.getPath()));
+                reduceChain.add(new UrlReduceStrategy(project, projectBaseDir + bean.getPath()));
             }
         }
 
-        return candidates -> {
+        return new ReduceChain(reduceChain);
+    }
+
+    /**
+     * Fuses the strategies into a single predicate, so that candidates are filtered in one pass and each
+     * candidate is dropped as soon as one strategy rejects it.
+     */
+    private static class ReduceChain implements ReduceStrategy<CssDeclarationPath> {
+        @NotNull
+        private final List<ReduceStrategy<CssDeclarationPath>> reduceChain;
+
+        private ReduceChain(@NotNull List<ReduceStrategy<CssDeclarationPath>> reduceChain) {
+            this.reduceChain = reduceChain;
+        }
+
+        public void reduce(@NotNull Collection<CssDeclarationPath> candidates) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Filtering " + candidates.size() + " candidates");
                 for (CssDeclarationPath candidate : candidates) {
                     LOG.debug("  Candidate: " + candidate);
                 }
             }
-            for (ReduceStrategy<CssDeclarationPath> reduceStrategy : reduceChain) {
-                reduceStrategy.reduce(candidates);
+            if (!reduceChain.isEmpty()) {
+                candidates.removeIf(candidate -> !accept(candidate));
             }
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Filtering done, remaining " + candidates.size() + " candidates");
             }
-        };
+        }
+
+        public boolean accept(@NotNull CssDeclarationPath candidate) {
+            for (ReduceStrategy<CssDeclarationPath> reduceStrategy : reduceChain) {
+                if (!reduceStrategy.accept(candidate)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @NotNull
+        @Override
+        public GlobalSearchScope restrictSearchScope(@NotNull GlobalSearchScope scope) {
+            for (ReduceStrategy<CssDeclarationPath> reduceStrategy : reduceChain) {
+                scope = reduceStrategy.restrictSearchScope(scope);
+            }
+            return scope;
+        }
     }
 }
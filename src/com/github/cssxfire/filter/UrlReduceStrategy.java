@@ -18,13 +18,12 @@ package com.github.cssxfire.filter;
 
 import com.github.cssxfire.tree.CssDeclarationPath;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.search.GlobalSearchScope;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-
 /**
  * <p>Reduces the candidates down to the elements in files that matches the given url. If the collection is
  * empty this reducer does nothing.
@@ -35,34 +34,39 @@ import java.util.List;
 public class UrlReduceStrategy implements ReduceStrategy<CssDeclarationPath> {
     private static final Logger LOG = Logger.getInstance(UrlReduceStrategy.class.getName());
 
+    @NotNull
+    private final Project project;
     @NotNull
     private final String url;
 
-    public UrlReduceStrategy(@NotNull String url) {
+    public UrlReduceStrategy(@NotNull Project project, @NotNull String url) {
+        this.project = project;
         this.url = url;
-    }
-
-    public void reduce(@NotNull Collection<CssDeclarationPath> candidates) {
         if (LOG.isDebugEnabled()) {
-            LOG.debug("Reducing " + candidates.size() + " candidates for url: " + url);
+            LOG.debug("Reducing candidates for url: " + url);
         }
-        if (candidates.isEmpty()) {
-            // nothing to do here
-            return;
+    }
+
+    @NotNull
+    @Override
+    public GlobalSearchScope restrictSearchScope(@NotNull GlobalSearchScope scope) {
+        VirtualFile file = VirtualFileManager.getInstance().findFileByUrl(url);
+        if (file == null) {
+            // nothing will survive the reduce anyway
+            return GlobalSearchScope.EMPTY_SCOPE;
         }
+        return scope.intersectWith(GlobalSearchScope.fileScope(project, file));
+    }
 
-        List<CssDeclarationPath> matches = new ArrayList<>();
-        for (CssDeclarationPath candidate : candidates) {
-            VirtualFile file = candidate.getFileNode().getVirtualFile();
-            if (file != null && url.equals(file.getUrl())) {
-                // candidate file url matches routed file
-                matches.add(candidate);
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug("  Match: " + candidate);
-                }
+    public boolean accept(@NotNull CssDeclarationPath candidate) {
+        VirtualFile file = candidate.getFileNode().getVirtualFile();
+        if (file != null && url.equals(file.getUrl())) {
+            // candidate file url matches routed file
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("  Match: " + candidate);
             }
+            return true;
         }
-
-        candidates.retainAll(matches);
+        return false;
     }
 }
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire.index;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * <p>Walks the rules and <tt>@media</tt> blocks of a plain CSS text without building PSI. The indices use it for
+ * minified and oversized stylesheets (see {@link com.github.cssxfire.StylesheetSearchScope#isMinified}), where
+ * building a PSI tree is the very cost the search scope avoids, and so does the source map lookup in generated
+ * stylesheets. Comments and strings are skipped, and offsets are those the PSI would have, so lookups verify them
+ * just the same.</p>
+ */
+public class CssTextScanner {
+    private static final String[] CONDITIONAL_GROUP_RULES = {"@media", "@supports", "@document", "@-moz-document"};
+
+    private CssTextScanner() {
+    }
+
+    /**
+     * Receives the rules and media queries found.
+     */
+    public interface Visitor {
+        /**
+         * @param selector the selector list text
+         * @param offset   the start offset of the rule
+         * @param block    the text between the braces of the rule
+         */
+        default void visitRule(@NotNull String selector, int offset, @NotNull CharSequence block) {
+        }
+
+        /**
+         * @param selector the selector list text
+         * @param offset   the start offset of the rule
+         * @param block    the text between the braces of the rule
+         * @param media    the medium list text of the innermost enclosing <tt>@media</tt> rule, or "" if none
+         */
+        default void visitRule(@NotNull String selector, int offset, @NotNull CharSequence block, @NotNull String media) {
+            visitRule(selector, offset, block);
+        }
+
+        /**
+         * @param media  the medium list text
+         * @param offset the start offset of the medium list
+         */
+        default void visitMedia(@NotNull String media, int offset) {
+        }
+    }
+
+    /**
+     * Scans the text, reporting rules at the top level and inside conditional group rules (<tt>@media</tt>,
+     * <tt>@supports</tt>...) to the visitor.
+     *
+     * @param text    the stylesheet text
+     * @param visitor the visitor
+     */
+    public static void scan(@NotNull CharSequence text, @NotNull Visitor visitor) {
+        Deque<Block> blocks = new ArrayDeque<>();
+        int preludeStart = -1;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            // in a rule or an at-rule holding declarations or keyframes, rather than rules
+            boolean inDeclarations = !blocks.isEmpty() && !blocks.peek().nestsRules;
+            if (c == '/' && i + 1 < text.length() && text.charAt(i + 1) == '*') {
+                i = skipComment(text, i);
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                if (preludeStart == -1 && !inDeclarations) {
+                    preludeStart = i;
+                }
+                i = skipString(text, i);
+                continue;
+            }
+            if (c == '{') {
+                String prelude = preludeStart != -1 ? text.subSequence(preludeStart, i).toString().trim() : "";
+                String enclosingMedia = blocks.isEmpty() ? "" : blocks.peek().media;
+                if (inDeclarations || prelude.isEmpty()) {
+                    blocks.push(new Block(null, preludeStart, i, false, enclosingMedia));
+                } else if (prelude.charAt(0) == '@') {
+                    String media = enclosingMedia;
+                    if (prelude.regionMatches(true, 0, "@media", 0, 6)) {
+                        int mediaStart = preludeStart + 6;
+                        while (mediaStart < i && Character.isWhitespace(text.charAt(mediaStart))) {
+                            mediaStart++;
+                        }
+                        media = prelude.substring(6).trim();
+                        if (!media.isEmpty()) {
+                            visitor.visitMedia(media, mediaStart);
+                        }
+                    }
+                    blocks.push(new Block(null, preludeStart, i, isConditionalGroup(prelude), media));
+                } else {
+                    blocks.push(new Block(prelude, preludeStart, i, false, enclosingMedia));
+                }
+                preludeStart = -1;
+            } else if (c == '}') {
+                Block block = blocks.poll();
+                if (block != null && block.selector != null) {
+                    visitor.visitRule(block.selector, block.offset, text.subSequence(block.blockStart + 1, i), block.media);
+                }
+                preludeStart = -1;
+            } else if (c == ';') {
+                if (!inDeclarations) {
+                    // end of a statement at-rule (@import, @charset...)
+                    preludeStart = -1;
+                }
+            } else if (preludeStart == -1 && !inDeclarations && !Character.isWhitespace(c)) {
+                preludeStart = i;
+            }
+            i++;
+        }
+    }
+
+    private static boolean isConditionalGroup(@NotNull String prelude) {
+        for (String name : CONDITIONAL_GROUP_RULES) {
+            if (prelude.regionMatches(true, 0, name, 0, name.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int skipComment(@NotNull CharSequence text, int start) {
+        for (int i = start + 2; i + 1 < text.length(); i++) {
+            if (text.charAt(i) == '*' && text.charAt(i + 1) == '/') {
+                return i + 2;
+            }
+        }
+        return text.length();
+    }
+
+    private static int skipString(@NotNull CharSequence text, int start) {
+        char quote = text.charAt(start);
+        int i = start + 1;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == quote || c == '\n') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return text.length();
+    }
+
+    private static class Block {
+        @Nullable
+        private final String selector;
+        private final int offset;
+        private final int blockStart;
+        private final boolean nestsRules;
+        @NotNull
+        private final String media;
+
+        private Block(@Nullable String selector, int offset, int blockStart, boolean nestsRules, @NotNull String media) {
+            this.selector = selector;
+            this.offset = offset;
+            this.blockStart = blockStart;
+            this.nestsRules = nestsRules;
+            this.media = media;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire.index;
+
+import com.github.cssxfire.resolve.CssPluginsFacade;
+import com.github.cssxfire.resolve.CssResolveProcessor;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.SingleRootFileViewProvider;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import gnu.trove.TIntArrayList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>Maps variable and mixin names of Less and Sass files to the offsets of their declarations. The names are taken
+ * from the resolve processors (see {@link CssResolveProcessor#getDeclarationName(com.intellij.psi.PsiElement)}),
+ * so a declaration is indexed under exactly the name it will be resolved by.</p>
+ */
+public class DeclarationIndex extends FileBasedIndexExtension<String, int[]> {
+    public static final ID<String, int[]> NAME = ID.create("cssxfire.Declarations");
+
+    private static final String VARIABLE_PREFIX = "$";
+    private static final String MIXIN_PREFIX = ".";
+
+    static final DataExternalizer<int[]> OFFSETS_EXTERNALIZER = new DataExternalizer<int[]>() {
+        public void save(@NotNull DataOutput out, int[] value) throws IOException {
+            DataInputOutputUtil.writeINT(out, value.length);
+            int previous = 0;
+            for (int offset : value) {
+                // offsets are ascending, store the deltas
+                DataInputOutputUtil.writeINT(out, offset - previous);
+                previous = offset;
+            }
+        }
+
+        public int[] read(@NotNull DataInput in) throws IOException {
+            int[] value = new int[DataInputOutputUtil.readINT(in)];
+            int previous = 0;
+            for (int i = 0; i < value.length; i++) {
+                previous += DataInputOutputUtil.readINT(in);
+                value[i] = previous;
+            }
+            return value;
+        }
+    };
+
+    @NotNull
+    @Override
+    public ID<String, int[]> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, int[], FileContent> getIndexer() {
+        return inputData -> {
+            PsiFile file = inputData.getPsiFile();
+            CssResolveProcessor variables = CssPluginsFacade.getVariableProcessor(file, null);
+            CssResolveProcessor mixins = CssPluginsFacade.getMixinProcessor(file, null);
+
+            Map<String, TIntArrayList> offsets = new HashMap<>();
+            PsiTreeUtil.processElements(file, element -> {
+                String variable = variables.getDeclarationName(element);
+                if (variable != null) {
+                    offsets.computeIfAbsent(VARIABLE_PREFIX + variable, key -> new TIntArrayList()).add(element.getTextRange().getStartOffset());
+                }
+                String mixin = mixins.getDeclarationName(element);
+                if (mixin != null) {
+                    offsets.computeIfAbsent(MIXIN_PREFIX + mixin, key -> new TIntArrayList()).add(element.getTextRange().getStartOffset());
+                }
+                return true;
+            });
+
+            Map<String, int[]> result = new HashMap<>();
+            for (Map.Entry<String, TIntArrayList> entry : offsets.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().toNativeArray());
+            }
+            return result;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<int[]> getValueExternalizer() {
+        return OFFSETS_EXTERNALIZER;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return DeclarationIndex::isIndexedType;
+    }
+
+    private static boolean isIndexedType(@NotNull VirtualFile file) {
+        String extension = file.getExtension();
+        return "less".equalsIgnoreCase(extension) || "scss".equalsIgnoreCase(extension);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Nullable
+    public static Declarations getVariableDeclarations(@NotNull Project project, @NotNull String name) {
+        return getDeclarations(project, VARIABLE_PREFIX + name);
+    }
+
+    @Nullable
+    public static Declarations getMixinDeclarations(@NotNull Project project, @NotNull String name) {
+        return getDeclarations(project, MIXIN_PREFIX + name);
+    }
+
+    @Nullable
+    private static Declarations getDeclarations(@NotNull Project project, @NotNull String key) {
+        if (DumbService.isDumb(project)) {
+            return null;
+        }
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        Map<VirtualFile, int[]> offsets = new HashMap<>();
+        FileBasedIndex.getInstance().processValues(NAME, key, null, (file, value) -> {
+            offsets.put(file, value);
+            return true;
+        }, scope);
+        return new Declarations(scope, offsets);
+    }
+
+    /**
+     * All declarations of one name, per file.
+     */
+    public static class Declarations {
+        @NotNull
+        private final GlobalSearchScope scope;
+        @NotNull
+        private final Map<VirtualFile, int[]> offsets;
+
+        private Declarations(@NotNull GlobalSearchScope scope, @NotNull Map<VirtualFile, int[]> offsets) {
+            this.scope = scope;
+            this.offsets = offsets;
+        }
+
+        /**
+         * @param file the file
+         * @return <tt>true</tt> if the declarations in <i>file</i> are known from the index, otherwise the file
+         * has to be walked (e.g. indented Sass, or too large for the index)
+         */
+        public boolean isIndexed(@NotNull VirtualFile file) {
+            return scope.contains(file) && isIndexedType(file) && !SingleRootFileViewProvider.isTooLargeForIntelligence(file);
+        }
+
+        /**
+         * @param file the file
+         * @return the ascending declaration offsets in <i>file</i>, or an empty array if there are none
+         */
+        @NotNull
+        public int[] getOffsets(@NotNull VirtualFile file) {
+            int[] result = offsets.get(file);
+            return result != null ? result : ArrayUtil.EMPTY_INT_ARRAY;
+        }
+    }
+}
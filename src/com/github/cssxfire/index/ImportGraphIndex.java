@@ -0,0 +1,194 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire.index;
+
+import com.github.cssxfire.StringUtils;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.css.CssImport;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Reverse import graph of Less and Sass files (both syntaxes). Each file is indexed under the base names of the files it imports
+ * (without extension and leading underscore), so the files importing a given file are found with a single index lookup
+ * instead of a text search over the project. The index is updated incrementally as files change.</p>
+ * <p>The forward direction (files imported by a given file) is resolved from PSI and cached per file.</p>
+ */
+public class ImportGraphIndex extends ScalarIndexExtension<String> {
+    public static final ID<String, Void> NAME = ID.create("cssxfire.ImportGraph");
+
+    private static final Pattern IMPORT_PATTERN = Pattern.compile("@import\\b([^;{}]*)");
+    // indented syntax, the import ends with the line and uris may be unquoted
+    private static final Pattern SASS_IMPORT_PATTERN = Pattern.compile("@import\\b([^;\\n]*)");
+    private static final Pattern URI_PATTERN = Pattern.compile("url\\(\\s*['\"]?([^'\")]+)|['\"]([^'\"]+)['\"]");
+    private static final String[] EXTENSIONS = {".less", ".scss", ".sass", ".css"};
+
+    @NotNull
+    @Override
+    public ID<String, Void> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, Void, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, Void> result = new HashMap<>();
+            boolean sass = "sass".equalsIgnoreCase(inputData.getFile().getExtension());
+            Matcher importMatcher = (sass ? SASS_IMPORT_PATTERN : IMPORT_PATTERN).matcher(inputData.getContentAsText());
+            while (importMatcher.find()) {
+                if (sass) {
+                    for (String uri : StringUtil.split(importMatcher.group(1), ",")) {
+                        addImportKey(result, StringUtil.unquoteString(StringUtil.trimEnd(StringUtil.trimStart(uri.trim(), "url("), ")").trim()));
+                    }
+                    continue;
+                }
+                Matcher uriMatcher = URI_PATTERN.matcher(importMatcher.group(1));
+                while (uriMatcher.find()) {
+                    addImportKey(result, uriMatcher.group(1) != null ? uriMatcher.group(1) : uriMatcher.group(2));
+                }
+            }
+            return result;
+        };
+    }
+
+    private static void addImportKey(@NotNull Map<String, Void> result, @NotNull String uri) {
+        String key = getImportKey(uri);
+        if (!key.isEmpty()) {
+            result.put(key, null);
+        }
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> {
+            String extension = file.getExtension();
+            return "less".equalsIgnoreCase(extension) || "scss".equalsIgnoreCase(extension) || "sass".equalsIgnoreCase(extension);
+        };
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Reduces an import uri, or a file name, to the key used in this index. <tt>"../mixins/_buttons.scss"</tt>
+     * and <tt>"_buttons.scss"</tt> both become <tt>"buttons"</tt>.
+     *
+     * @param uri the import uri or file name
+     * @return the key
+     */
+    @NotNull
+    public static String getImportKey(@NotNull String uri) {
+        String name = StringUtil.trimEnd(StringUtils.trimEnd(StringUtils.trimEnd(uri.trim(), "?"), "#"), "/");
+        name = name.substring(name.lastIndexOf('/') + 1);
+        for (String extension : EXTENSIONS) {
+            if (StringUtil.endsWithIgnoreCase(name, extension)) {
+                name = name.substring(0, name.length() - extension.length());
+                break;
+            }
+        }
+        return StringUtil.trimStart(name, "_");
+    }
+
+    /**
+     * Get the files imported by <i>file</i>. Imports are resolved from PSI, and cached until the file or the
+     * file system structure changes.
+     *
+     * @param file the importing file
+     * @return the imported files, in order of appearance
+     */
+    @NotNull
+    public static List<PsiFile> getImportedFiles(@NotNull PsiFile file) {
+        List<VirtualFile> imported = CachedValuesManager.getCachedValue(file, () -> {
+            List<VirtualFile> files = new ArrayList<>();
+            for (CssImport cssImport : PsiTreeUtil.findChildrenOfType(file, CssImport.class)) {
+                for (PsiFile resolved : cssImport.resolve()) {
+                    VirtualFile virtualFile = resolved.getVirtualFile();
+                    if (virtualFile != null && !files.contains(virtualFile)) {
+                        files.add(virtualFile);
+                    }
+                }
+            }
+            return CachedValueProvider.Result.create(files, file, VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS);
+        });
+        return toPsiFiles(file.getManager(), imported);
+    }
+
+    /**
+     * Get the files importing <i>file</i>. Candidates are looked up in this index and verified by resolving their imports.
+     *
+     * @param file  the imported file
+     * @param scope the scope to look for importing files in
+     * @return the importing files, or an empty list while indices are being updated
+     */
+    @NotNull
+    public static List<PsiFile> getImportingFiles(@NotNull PsiFile file, @NotNull GlobalSearchScope scope) {
+        VirtualFile virtualFile = file.getVirtualFile();
+        if (virtualFile == null || DumbService.isDumb(file.getProject())) {
+            return Collections.emptyList();
+        }
+        Collection<VirtualFile> candidates = FileBasedIndex.getInstance().getContainingFiles(NAME, getImportKey(virtualFile.getName()), scope);
+        List<PsiFile> importers = new ArrayList<>();
+        for (PsiFile candidate : toPsiFiles(file.getManager(), candidates)) {
+            if (!virtualFile.equals(candidate.getVirtualFile()) && getImportedFiles(candidate).contains(file)) {
+                importers.add(candidate);
+            }
+        }
+        return importers;
+    }
+
+    @NotNull
+    private static List<PsiFile> toPsiFiles(@NotNull PsiManager psiManager, @NotNull Collection<VirtualFile> files) {
+        List<PsiFile> psiFiles = new ArrayList<>(files.size());
+        for (VirtualFile virtualFile : files) {
+            PsiFile psiFile = virtualFile.isValid() ? psiManager.findFile(virtualFile) : null;
+            if (psiFile != null) {
+                psiFiles.add(psiFile);
+            }
+        }
+        return psiFiles;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire.index;
+
+import com.github.cssxfire.StringUtils;
+import com.github.cssxfire.StylesheetSearchScope;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.css.CssMediumList;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import gnu.trove.TIntArrayList;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Maps media queries, in canonical form (see {@link StringUtils#canonicalizeMedia(String)}), to the offsets of
+ * the medium lists having them. Finding the <tt>@media</tt> blocks for a media query reported by Firebug is a single
+ * lookup, and every matching block is found, however it is written. Minified and oversized stylesheets are scanned
+ * as text, without building PSI.</p>
+ */
+public class MediaQueryIndex extends FileBasedIndexExtension<String, int[]> {
+    public static final ID<String, int[]> NAME = ID.create("cssxfire.MediaQueries");
+
+    @NotNull
+    @Override
+    public ID<String, int[]> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, int[], FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, TIntArrayList> offsets = new HashMap<>();
+            if (StylesheetSearchScope.isMinified(inputData.getFile(), inputData.getContent())) {
+                CssTextScanner.scan(inputData.getContentAsText(), new CssTextScanner.Visitor() {
+                    @Override
+                    public void visitMedia(@NotNull String mediumList, int offset) {
+                        addMedia(offsets, mediumList, offset);
+                    }
+                });
+            } else {
+                for (CssMediumList mediumList : PsiTreeUtil.findChildrenOfType(inputData.getPsiFile(), CssMediumList.class)) {
+                    addMedia(offsets, mediumList.getText(), mediumList.getTextRange().getStartOffset());
+                }
+            }
+
+            Map<String, int[]> result = new HashMap<>();
+            for (Map.Entry<String, TIntArrayList> entry : offsets.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().toNativeArray());
+            }
+            return result;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<int[]> getValueExternalizer() {
+        return DeclarationIndex.OFFSETS_EXTERNALIZER;
+    }
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> {
+            String extension = file.getExtension();
+            return "css".equalsIgnoreCase(extension) || "less".equalsIgnoreCase(extension) || "scss".equalsIgnoreCase(extension)
+                    || "sass".equalsIgnoreCase(extension);
+        };
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    private static void addMedia(@NotNull Map<String, TIntArrayList> offsets, @NotNull String mediumList, int offset) {
+        String media = StringUtils.canonicalizeMedia(mediumList);
+        if (!media.isEmpty()) {
+            offsets.computeIfAbsent(media, key -> new TIntArrayList()).add(offset);
+        }
+    }
+
+    /**
+     * Finds the medium lists equivalent to a media query.
+     *
+     * @param project the project
+     * @param media   the media query list, as reported by Firebug
+     * @param scope   the scope to search
+     * @return the medium lists, or an empty list while indices are being updated
+     */
+    @NotNull
+    public static List<CssMediumList> findMediumLists(@NotNull Project project, @NotNull String media, @NotNull GlobalSearchScope scope) {
+        List<CssMediumList> mediumLists = new ArrayList<>();
+        String key = StringUtils.canonicalizeMedia(media);
+        if (key.isEmpty() || DumbService.isDumb(project)) {
+            return mediumLists;
+        }
+        PsiManager psiManager = PsiManager.getInstance(project);
+        FileBasedIndex.getInstance().processValues(NAME, key, null, (VirtualFile file, int[] offsets) -> {
+            PsiFile psiFile = file.isValid() ? psiManager.findFile(file) : null;
+            if (psiFile != null) {
+                for (int offset : offsets) {
+                    CssMediumList mediumList = PsiTreeUtil.getParentOfType(psiFile.findElementAt(offset), CssMediumList.class, false);
+                    // skip stale offsets, the index may lag behind unsaved changes
+                    if (mediumList != null && key.equals(StringUtils.canonicalizeMedia(mediumList.getText()))) {
+                        mediumLists.add(mediumList);
+                    }
+                }
+            }
+            return true;
+        }, scope);
+        return mediumLists;
+    }
+}
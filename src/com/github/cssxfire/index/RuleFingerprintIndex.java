@@ -0,0 +1,167 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire.index;
+
+import com.github.cssxfire.StringUtils;
+import com.github.cssxfire.StylesheetSearchScope;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.css.CssBlock;
+import com.intellij.psi.css.CssRuleset;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import gnu.trove.TIntArrayList;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Maps the fingerprint of each rule's declaration block to the offsets of the rulesets having it. The fingerprint
+ * is the content hash (see {@link StringUtils#contentHash(CharSequence)}) of the text between the braces, which the
+ * Firefox extension computes from the original stylesheet source, so a rule is found without a selector search and
+ * rules with the same selector are told apart.</p>
+ * <p>Only plain CSS files are indexed. A nested Less or Sass rule's block holds its child rules as well, so its
+ * fingerprint never equals the one the browser reports for the compiled rule; changes to such stylesheets are
+ * routed through source maps or a selector search instead.</p>
+ * <p>Minified and oversized stylesheets are scanned as text, without building PSI.</p>
+ */
+public class RuleFingerprintIndex extends FileBasedIndexExtension<String, int[]> {
+    public static final ID<String, int[]> NAME = ID.create("cssxfire.RuleFingerprints");
+
+    @NotNull
+    @Override
+    public ID<String, int[]> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, int[], FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, TIntArrayList> offsets = new HashMap<>();
+            if (StylesheetSearchScope.isMinified(inputData.getFile(), inputData.getContent())) {
+                CssTextScanner.scan(inputData.getContentAsText(), new CssTextScanner.Visitor() {
+                    @Override
+                    public void visitRule(@NotNull String selector, int offset, @NotNull CharSequence block) {
+                        offsets.computeIfAbsent(getFingerprint(block.toString()), key -> new TIntArrayList()).add(offset);
+                    }
+                });
+            } else {
+                for (CssRuleset ruleset : PsiTreeUtil.findChildrenOfType(inputData.getPsiFile(), CssRuleset.class)) {
+                    CssBlock block = ruleset.getBlock();
+                    if (block != null) {
+                        offsets.computeIfAbsent(getFingerprint(block.getText()), key -> new TIntArrayList()).add(ruleset.getTextRange().getStartOffset());
+                    }
+                }
+            }
+
+            Map<String, int[]> result = new HashMap<>();
+            for (Map.Entry<String, TIntArrayList> entry : offsets.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().toNativeArray());
+            }
+            return result;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<int[]> getValueExternalizer() {
+        return DeclarationIndex.OFFSETS_EXTERNALIZER;
+    }
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> "css".equalsIgnoreCase(file.getExtension());
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Computes the fingerprint of a declaration block.
+     *
+     * @param blockText the block text, with or without the enclosing braces
+     * @return the fingerprint
+     */
+    @NotNull
+    public static String getFingerprint(@NotNull String blockText) {
+        String text = blockText.trim();
+        return StringUtils.contentHash(StringUtil.trimEnd(StringUtil.trimStart(text, "{"), "}"));
+    }
+
+    /**
+     * Finds the rulesets with a given fingerprint.
+     *
+     * @param project     the project
+     * @param fingerprint the fingerprint reported by the browser
+     * @param scope       the scope to search
+     * @return the rulesets, or an empty list while indices are being updated
+     */
+    @NotNull
+    public static List<CssRuleset> findRulesets(@NotNull Project project, @NotNull String fingerprint, @NotNull GlobalSearchScope scope) {
+        List<CssRuleset> rulesets = new ArrayList<>();
+        if (DumbService.isDumb(project)) {
+            return rulesets;
+        }
+        PsiManager psiManager = PsiManager.getInstance(project);
+        FileBasedIndex.getInstance().processValues(NAME, fingerprint, null, (VirtualFile file, int[] offsets) -> {
+            PsiFile psiFile = file.isValid() ? psiManager.findFile(file) : null;
+            if (psiFile != null) {
+                for (int offset : offsets) {
+                    PsiElement element = psiFile.findElementAt(offset);
+                    CssRuleset ruleset = PsiTreeUtil.getParentOfType(element, CssRuleset.class, false);
+                    // skip stale offsets, the index may lag behind unsaved changes
+                    while (ruleset != null && ruleset.getTextRange().getStartOffset() != offset) {
+                        ruleset = PsiTreeUtil.getParentOfType(ruleset, CssRuleset.class);
+                    }
+                    CssBlock block = ruleset != null ? ruleset.getBlock() : null;
+                    if (block != null && fingerprint.equals(getFingerprint(block.getText()))) {
+                        rulesets.add(ruleset);
+                    }
+                }
+            }
+            return true;
+        }, scope);
+        return rulesets;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire.index;
+
+import com.github.cssxfire.SelectorChainMatcher;
+import com.github.cssxfire.StylesheetSearchScope;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.css.CssFile;
+import com.intellij.psi.css.CssRuleset;
+import com.intellij.psi.css.CssSelectorList;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * <p>Indexes the class (<tt>.name</tt>), id (<tt>#name</tt>) and element tokens of all selectors in a stylesheet.
+ * A file can only contain a rule for a selector if it contains all tokens of the selector, so intersecting the files
+ * of each token gives a small set of candidate files before any PSI is loaded, even when the last token of the
+ * selector is as common as <tt>a</tt>.</p>
+ * <p>Less and Sass files building selectors from parts (<tt>&amp;-item</tt>, interpolation) can not be indexed by
+ * token; they are indexed under a wildcard and are always candidates. So are stylesheets not parsed as CSS, e.g.
+ * <tt>.sass</tt> files when no Sass support is installed. Minified and oversized stylesheets are scanned as text,
+ * without building PSI.</p>
+ */
+public class SelectorTokenIndex extends ScalarIndexExtension<String> {
+    public static final ID<String, Void> NAME = ID.create("cssxfire.SelectorTokens");
+
+    private static final String WILDCARD = "*";
+
+    @NotNull
+    @Override
+    public ID<String, Void> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, Void, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, Void> result = new HashMap<>();
+            if (StylesheetSearchScope.isMinified(inputData.getFile(), inputData.getContent())) {
+                CssTextScanner.scan(inputData.getContentAsText(), new CssTextScanner.Visitor() {
+                    @Override
+                    public void visitRule(@NotNull String selector, int offset, @NotNull CharSequence block) {
+                        addSelectorTokens(result, selector);
+                    }
+                });
+                return result;
+            }
+            PsiFile psiFile = inputData.getPsiFile();
+            if (!(psiFile instanceof CssFile)) {
+                result.put(WILDCARD, null);
+                return result;
+            }
+            for (CssRuleset ruleset : PsiTreeUtil.findChildrenOfType(psiFile, CssRuleset.class)) {
+                CssSelectorList selectorList = ruleset.getSelectorList();
+                if (selectorList != null) {
+                    addSelectorTokens(result, selectorList.getText());
+                }
+            }
+            return result;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> {
+            String extension = file.getExtension();
+            return "css".equalsIgnoreCase(extension) || "less".equalsIgnoreCase(extension) || "scss".equalsIgnoreCase(extension)
+                    || "sass".equalsIgnoreCase(extension);
+        };
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    private static void addSelectorTokens(@NotNull Map<String, Void> result, @NotNull String selector) {
+        if (SelectorChainMatcher.isDynamic(selector)) {
+            result.put(WILDCARD, null);
+        }
+        for (Set<String> tokens : getSelectorTokens(selector)) {
+            for (String token : tokens) {
+                result.put(token, null);
+            }
+        }
+    }
+
+    /**
+     * Gets the files within <i>scope</i> which may contain a rule for <i>selector</i>. For each comma separated
+     * part of the selector, the index intersects the files of its tokens.
+     *
+     * @param project  the project
+     * @param selector the selector, as reported by the browser
+     * @param scope    the scope to look for candidates in
+     * @return the candidate files, or <tt>null</tt> if the selector has no tokens to filter on or indices are being updated
+     */
+    @Nullable
+    public static Set<VirtualFile> getCandidateFiles(@NotNull Project project, @NotNull String selector, @NotNull GlobalSearchScope scope) {
+        List<Set<String>> alternatives = getSelectorTokens(selector);
+        for (Set<String> tokens : alternatives) {
+            if (tokens.isEmpty()) {
+                // e.g. "*" or "[type=text]", any file may match
+                return null;
+            }
+        }
+        if (DumbService.isDumb(project)) {
+            return null;
+        }
+
+        FileBasedIndex index = FileBasedIndex.getInstance();
+        Set<VirtualFile> candidates = new HashSet<>(index.getContainingFiles(NAME, WILDCARD, scope));
+        for (Set<String> tokens : alternatives) {
+            index.processFilesContainingAllKeys(NAME, tokens, scope, null, file -> {
+                candidates.add(file);
+                return true;
+            });
+        }
+        return candidates;
+    }
+
+    /**
+     * Splits a selector into its class, id and element tokens, per comma separated part. Pseudo classes,
+     * attribute selectors and function arguments are left out. Element names are lower cased.
+     *
+     * @param selector the selector
+     * @return the tokens of each part of the selector
+     */
+    @NotNull
+    static List<Set<String>> getSelectorTokens(@NotNull String selector) {
+        List<Set<String>> alternatives = new ArrayList<>();
+        Set<String> tokens = new HashSet<>();
+        int depth = 0;
+        int i = 0;
+        while (i < selector.length()) {
+            char c = selector.charAt(i);
+            if (c == '[' || c == '(') {
+                depth++;
+                i++;
+            } else if (c == ']' || c == ')') {
+                depth = Math.max(0, depth - 1);
+                i++;
+            } else if (depth > 0) {
+                i++;
+            } else if (c == ',') {
+                alternatives.add(tokens);
+                tokens = new HashSet<>();
+                i++;
+            } else if (c == '.' || c == '#' || c == ':') {
+                int start = i + 1;
+                while (c == ':' && start < selector.length() && selector.charAt(start) == ':') {
+                    start++;
+                }
+                int end = skipIdentifier(selector, start);
+                if (c != ':' && end > start) {
+                    tokens.add(c + selector.substring(start, end));
+                }
+                i = end;
+            } else if (isIdentifierPart(c)) {
+                int end = skipIdentifier(selector, i);
+                tokens.add(selector.substring(i, end).toLowerCase(Locale.US));
+                i = end;
+            } else {
+                i++;
+            }
+        }
+        alternatives.add(tokens);
+        return alternatives;
+    }
+
+    private static int skipIdentifier(@NotNull String s, int start) {
+        int i = start;
+        while (i < s.length()) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                i += 2;
+            } else if (isIdentifierPart(c)) {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-' || c == '_' || c >= 0x80;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire.index;
+
+import com.github.cssxfire.StringUtils;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>Maps the content hash of each stylesheet in the project (see {@link StringUtils#contentHash(CharSequence)}) to
+ * the file, so a stylesheet loaded in the browser is matched to its project file without any routes configured.</p>
+ */
+public class StylesheetHashIndex extends ScalarIndexExtension<String> {
+    public static final ID<String, Void> NAME = ID.create("cssxfire.StylesheetHash");
+
+    @NotNull
+    @Override
+    public ID<String, Void> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, Void, FileContent> getIndexer() {
+        return inputData -> Collections.singletonMap(StringUtils.contentHash(inputData.getContentAsText()), null);
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> "css".equalsIgnoreCase(file.getExtension());
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Finds the project stylesheet with the given content hash. If several files have the same content, the one
+     * named <i>filename</i> is used, if there is only one such file.
+     *
+     * @param project  the project
+     * @param hash     the content hash reported by the browser
+     * @param filename the file name reported by the browser
+     * @param scope    the scope of stylesheets that may be matched
+     * @return the matching stylesheet, or <tt>null</tt> if there is no single match or indices are being updated
+     */
+    @Nullable
+    public static VirtualFile findStylesheet(@NotNull Project project, @NotNull String hash, @NotNull String filename,
+                                             @NotNull GlobalSearchScope scope) {
+        if (DumbService.isDumb(project)) {
+            return null;
+        }
+        Collection<VirtualFile> files = FileBasedIndex.getInstance().getContainingFiles(NAME, hash, scope);
+        if (files.size() > 1) {
+            List<VirtualFile> named = new ArrayList<>();
+            for (VirtualFile file : files) {
+                if (file.getName().equals(filename)) {
+                    named.add(file);
+                }
+            }
+            files = named;
+        }
+        return files.size() == 1 ? files.iterator().next() : null;
+    }
+}
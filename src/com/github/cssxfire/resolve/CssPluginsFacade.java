@@ -16,19 +16,16 @@
 
 package com.github.cssxfire.resolve;
 
-import com.intellij.openapi.fileTypes.FileType;
-import com.intellij.openapi.fileTypes.FileTypeManager;
-import com.intellij.openapi.fileTypes.PlainTextFileType;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Constructor;
-
+/**
+ * Creates resolve processors for the dialect of a file, through the factories registered for its file type.
+ * See {@link CssResolveProcessorFactory}.
+ */
 public class CssPluginsFacade {
-    private static final FileType LESS_FILE_TYPE = FileTypeManager.getInstance().getStdFileType("LESS");
-    private static final FileType SASS_FILE_TYPE = FileTypeManager.getInstance().getStdFileType("SASS");
-    private static final FileType SCSS_FILE_TYPE = FileTypeManager.getInstance().getStdFileType("SCSS");
     private static final CssResolveProcessor NOP_PROCESSOR = new CssResolveProcessor(null) {
         @Override
         public boolean executeInternal(@NotNull PsiElement element) {
@@ -38,43 +35,22 @@ public class CssPluginsFacade {
 
     @NotNull
     public static CssResolveProcessor getVariableProcessor(@NotNull PsiElement element, String name) {
-        return createResolveProcessor(element, name, "Variable");
+        CssResolveProcessorFactory factory = getFactory(element);
+        return factory != null ? factory.createVariableProcessor(name) : NOP_PROCESSOR;
     }
     
     @NotNull
     public static CssResolveProcessor getMixinProcessor(@NotNull PsiElement element, String name) {
-        return createResolveProcessor(element, name, "Mixin");
+        CssResolveProcessorFactory factory = getFactory(element);
+        return factory != null ? factory.createMixinProcessor(name) : NOP_PROCESSOR;
     }
     
-    @NotNull
-    private static CssResolveProcessor createResolveProcessor(@NotNull PsiElement element, String name, String type) {
+    @Nullable
+    private static CssResolveProcessorFactory getFactory(@NotNull PsiElement element) {
         PsiFile file = element.getContainingFile();
         if (file == null) {
-            return NOP_PROCESSOR;
+            return null;
         }
-        
-        FileType fileType = file.getFileType();
-        if (fileType == PlainTextFileType.INSTANCE) {
-            return NOP_PROCESSOR;
-        }
-
-        String prefix = null;
-        if (fileType == LESS_FILE_TYPE) {
-            prefix = "Less";
-        } else if (fileType == SCSS_FILE_TYPE) {
-            prefix = "Scss";
-        }
-
-        if (prefix != null) {
-            try {
-                Class<? extends CssResolveProcessor> clazz = (Class<? extends CssResolveProcessor>) Class.forName(CssPluginsFacade.class.getPackage().getName() + "." + prefix + type + "Processor");
-                Constructor<? extends CssResolveProcessor> constructor = clazz.getConstructor(String.class);
-                return constructor.newInstance(name);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
-
-        return NOP_PROCESSOR;
+        return CssResolveProcessorFactory.EP.forFileType(file.getFileType());
     }
 }
@@ -23,14 +23,9 @@ import com.intellij.psi.search.PsiElementProcessor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Set;
-
 public abstract class CssResolveProcessor implements PsiElementProcessor {
     protected final String name;
     protected final Ref<PsiElement> result = Ref.create();
-    private final Set<CssImport> imports = new HashSet<>();
 
     protected CssResolveProcessor(String name) {
         this.name = name;
@@ -45,27 +40,27 @@ public abstract class CssResolveProcessor implements PsiElementProcessor {
         return result.get();
     }
 
-    @Nullable
-    public synchronized CssImport popImport() {
-        if (imports.isEmpty()) {
-            return null;
-        }
-        Iterator<CssImport> iterator = imports.iterator();
-        CssImport next = iterator.next();
-        iterator.remove();
-        return next;
-    }
-
     public boolean executeInScope(@NotNull PsiElement base) {
         return true;
     }
     
     public abstract boolean executeInternal(@NotNull PsiElement element);
 
+    /**
+     * Get the name declared by <i>element</i>, if it is a declaration of the kind this processor resolves.
+     * Used for indexing, and must agree with the name matched by {@link #executeInternal(PsiElement)}.
+     *
+     * @param element the element
+     * @return the declared name, or <tt>null</tt> if the element is not a declaration
+     */
+    @Nullable
+    public String getDeclarationName(@NotNull PsiElement element) {
+        return null;
+    }
+
     public boolean execute(@NotNull PsiElement element) {
         if (element instanceof CssImport) {
-            CssImport cssImport = (CssImport) element;
-            imports.add(cssImport);
+            // imports are followed through the import graph, see ImportGraphIndex
             return true;
         }
         return executeInternal(element);
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire.resolve;
+
+import com.intellij.openapi.fileTypes.FileTypeExtension;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>Creates the resolve processors for one stylesheet dialect. Implementations are registered per file type in
+ * plugin.xml:
+ * <pre>
+ *     &lt;extensions defaultExtensionNs=&quot;com.github.cssxfire&quot;&gt;
+ *         &lt;resolveProcessorFactory filetype=&quot;LESS&quot;
+ *             implementationClass=&quot;com.github.cssxfire.resolve.LessResolveProcessorFactory&quot;/&gt;
+ *     &lt;/extensions&gt;
+ * </pre>
+ * </p>
+ */
+public interface CssResolveProcessorFactory {
+    FileTypeExtension<CssResolveProcessorFactory> EP = new FileTypeExtension<>("com.github.cssxfire.resolveProcessorFactory");
+
+    @NotNull
+    CssResolveProcessor createVariableProcessor(String name);
+
+    @NotNull
+    CssResolveProcessor createMixinProcessor(String name);
+}
@@ -17,22 +17,22 @@
 package com.github.cssxfire.resolve;
 
 import com.github.cssxfire.CssUtils;
-import com.intellij.openapi.util.Key;
+import com.github.cssxfire.index.DeclarationIndex;
+import com.github.cssxfire.index.ImportGraphIndex;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiErrorElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.ResolveState;
-import com.intellij.psi.css.CssImport;
 import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.search.SearchScope;
-import com.intellij.psi.search.UsageSearchContext;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.*;
 
 /**
  * <p>
@@ -42,103 +42,179 @@ import java.util.HashSet;
  *         <li>Process all files imported by current file, and their imports until there are no more imports.</li>
  *         <li>Search for files that are importing current file and repeat from step 1 (with <i>current</i> file being the <i>importing file</i>).</li>
  *     </ol>
- *     As soon as the declaration is found the processing is stopped.
+ *     As soon as the declaration is found the processing is stopped. When indices are available only the declarations
+ *     found in {@link DeclarationIndex} are processed, instead of every element of each file.
  * </p>
  */
 public class CssResolveUtils {
-    private static final Key<Collection<String>> PROCESSED_PATHS = new Key<>("PROCESSED_PATHS");
-
     /**
-     * Checks if the PSI tree in given root contains a PsiErrorElement.
+     * Checks if the PSI tree in given root contains a PsiErrorElement. The error elements of each file are collected
+     * once per modification of the file, so the check is a binary search on their offsets.
      * @param root the PSI tree to check
      * @return <tt>true</tt> if there is at least one error element in the given tree
      */
     public static boolean containsErrors(@Nullable PsiElement root) {
-        return root != null && PsiTreeUtil.findChildOfType(root, PsiErrorElement.class) != null;
+        if (root == null) {
+            return false;
+        }
+        PsiFile file = root.getContainingFile();
+        if (file == null || root == file) {
+            return PsiTreeUtil.findChildOfType(root, PsiErrorElement.class) != null;
+        }
+        PsiErrorElement[] errors = getErrorElements(file);
+        if (errors.length == 0) {
+            return false;
+        }
+
+        TextRange range = root.getTextRange();
+        // Find the first error starting at or after the root
+        int low = 0;
+        int high = errors.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (errors[mid].getTextRange().getStartOffset() < range.getStartOffset()) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < errors.length; i++) {
+            TextRange errorRange = errors[i].getTextRange();
+            if (errorRange.getStartOffset() > range.getEndOffset()) {
+                break;
+            }
+            if (errorRange.getStartOffset() > range.getStartOffset() && errorRange.getEndOffset() < range.getEndOffset()) {
+                // Strictly inside the root
+                return true;
+            }
+            if (range.contains(errorRange) && PsiTreeUtil.isAncestor(root, errors[i], true)) {
+                // On the boundary, may as well belong to a sibling
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @NotNull
+    private static PsiErrorElement[] getErrorElements(@NotNull PsiFile file) {
+        return CachedValuesManager.getCachedValue(file, () -> {
+            // Collected in document order, hence sorted by start offset
+            Collection<PsiErrorElement> errors = PsiTreeUtil.findChildrenOfType(file, PsiErrorElement.class);
+            return CachedValueProvider.Result.create(errors.toArray(new PsiErrorElement[0]), file);
+        });
     }
 
     @Nullable
     public static PsiElement resolveVariable(@NotNull PsiElement base, @NotNull String name) {
         CssResolveProcessor processor = CssPluginsFacade.getVariableProcessor(base, name);
-        if (processor.executeInScope(base)) {
-            processFile(base.getContainingFile(), processor, ResolveState.initial().put(PROCESSED_PATHS, new HashSet<>()));
+        if (!processor.executeInScope(base)) {
+            return processor.getResult();
         }
-        return processor.getResult();
+        PsiFile file = base.getContainingFile();
+        return ResolveCache.getInstance(base.getProject()).resolve(file, ResolveCache.VARIABLE, name, () -> {
+            DeclarationIndex.Declarations declarations = DeclarationIndex.getVariableDeclarations(base.getProject(), name);
+            processImportClosure(file, processor, declarations);
+            return processor.getResult();
+        });
     }
     
     @Nullable
     public static PsiElement resolveMixin(@NotNull PsiElement base, @NotNull String name) {
         CssResolveProcessor processor = CssPluginsFacade.getMixinProcessor(base, name);
-        if (processor.executeInScope(base)) {
-            processFile(base.getContainingFile(), processor, ResolveState.initial().put(PROCESSED_PATHS, new HashSet<>()));
+        if (!processor.executeInScope(base)) {
+            return processor.getResult();
         }
-        return processor.getResult();
+        PsiFile file = base.getContainingFile();
+        return ResolveCache.getInstance(base.getProject()).resolve(file, ResolveCache.MIXIN, name, () -> {
+            DeclarationIndex.Declarations declarations = DeclarationIndex.getMixinDeclarations(base.getProject(), name);
+            processImportClosure(file, processor, declarations);
+            return processor.getResult();
+        });
     }
-    
-    private static boolean processFile(final PsiFile file, final CssResolveProcessor processor, final ResolveState state) {
-        if (!pushPath(file, state)) {
-            // Already visited, skip
-            return true;
-        }
 
-        // Process declarations in file
-        if (!PsiTreeUtil.processElements(file, processor)) {
-            return false;
-        }
+    /**
+     * Walks the import closure of <i>file</i> depth first: the file itself, then its imports (recursively), then
+     * the files importing it. All state lives in this invocation, so independent resolves may run concurrently.
+     *
+     * @param file         the file where resolving starts
+     * @param processor    the processor
+     * @param declarations indexed declarations of the name being resolved, or <tt>null</tt> to walk all elements
+     * @return <tt>false</tt> if the processor stopped the walk
+     */
+    private static boolean processImportClosure(@NotNull PsiFile file, @NotNull CssResolveProcessor processor,
+                                                @Nullable DeclarationIndex.Declarations declarations) {
+        Set<VirtualFile> visited = new HashSet<>();
+        // a file to process, or (with importers set) a file whose importers are still to be looked up
+        Deque<Pair<PsiFile, Boolean>> stack = new ArrayDeque<>();
+        stack.push(Pair.create(file, false));
 
-        // Process imports in file
-        CssImport cssImport;
-        while ((cssImport = processor.popImport()) != null) {
-            PsiFile[] imports = cssImport.resolve();
-            for (PsiFile resolvedImport : imports) {
-                if (!processFile(resolvedImport, processor, state)) {
-                    return false;
+        while (!stack.isEmpty()) {
+            Pair<PsiFile, Boolean> entry = stack.pop();
+            PsiFile current = entry.first;
+            if (entry.second) {
+                // Imports are done without a result, now the files importing this file
+                List<PsiFile> importingFiles = ImportGraphIndex.getImportingFiles(current, getResolveSearchScope(current));
+                for (int i = importingFiles.size() - 1; i >= 0; i--) {
+                    stack.push(Pair.create(importingFiles.get(i), false));
                 }
+                continue;
+            }
+            if (!markVisited(current, visited)) {
+                // Already visited, skip
+                continue;
+            }
+
+            // Process declarations in file
+            if (!processDeclarations(current, processor, declarations)) {
+                return false;
+            }
+
+            // Files importing this file are looked up only after the imports, so the marker goes onto the stack first
+            stack.push(Pair.create(current, true));
+            List<PsiFile> importedFiles = ImportGraphIndex.getImportedFiles(current);
+            for (int i = importedFiles.size() - 1; i >= 0; i--) {
+                stack.push(Pair.create(importedFiles.get(i), false));
             }
         }
 
-        // Recurse on files importing this file
-        CssUtils.getPsiSearchHelper(file.getProject()).processElementsWithWord((element, offsetInElement) -> {
-            if (element.getParent().getParent() instanceof CssImport) {
-                CssImport cssImport1 = (CssImport) element.getParent().getParent();
-                String[] uris = cssImport1.getUriStrings();
-                for (String uri : uris) {
-                    if (uri != null && uri.endsWith(file.getName())) {
-                        PsiFile[] imports = cssImport1.resolve();
-                        for (PsiFile importedFile : imports) {
-                            if (file == importedFile) {
-                                if (!processFile(cssImport1.getContainingFile(), processor, state)) {
-                                    return false;
-                                }
-                            }
-                        }
-                    }
+        return true;
+    }
+
+    private static boolean processDeclarations(@NotNull PsiFile file, @NotNull CssResolveProcessor processor,
+                                               @Nullable DeclarationIndex.Declarations declarations) {
+        VirtualFile virtualFile = file.getVirtualFile();
+        if (declarations == null || virtualFile == null || !declarations.isIndexed(virtualFile)) {
+            // No index available, walk the whole file
+            return PsiTreeUtil.processElements(file, processor);
+        }
+        for (int offset : declarations.getOffsets(virtualFile)) {
+            // The declaration is the outermost element starting at the offset, let the processor see them all
+            PsiElement element = file.findElementAt(offset);
+            while (element != null && !(element instanceof PsiFile) && element.getTextRange().getStartOffset() == offset) {
+                if (!processor.execute(element)) {
+                    return false;
                 }
+                element = element.getParent();
             }
-            return true;
-        }, getResolveSearchScope(file), file.getName(), (short) (UsageSearchContext.IN_CODE | UsageSearchContext.IN_STRINGS), true);
-
+        }
         return true;
     }
 
+    /**
+     * Get the scope of files which may import <i>file</i>. The stylesheet search scope is not used: its excludes and
+     * search roots pick the stylesheets changes are applied to, while a variable may well be defined in an excluded
+     * library or outside the roots.
+     */
     @NotNull
-    private static SearchScope getResolveSearchScope(@NotNull PsiFile file) {
+    private static GlobalSearchScope getResolveSearchScope(@NotNull PsiFile file) {
         return GlobalSearchScope.getScopeRestrictedByFileTypes(GlobalSearchScope.projectScope(file.getProject()), file.getFileType());
     }
 
-    private static final Object LOCK = new Object();
-
-    private static boolean pushPath(@NotNull PsiFile file, @NotNull ResolveState state) {
-        synchronized (LOCK) {
-            if (!CssUtils.isDynamicCssLanguage(file)) {
-                return false;
-            }
-            Collection<String> paths = state.get(PROCESSED_PATHS);
-            if (paths == null) {
-                return false;
-            }
-            VirtualFile virtualFile = file.getVirtualFile();
-            return virtualFile != null && paths.add(virtualFile.getPath());
+    private static boolean markVisited(@NotNull PsiFile file, @NotNull Set<VirtualFile> visited) {
+        if (!CssUtils.isDynamicCssLanguage(file)) {
+            return false;
         }
+        VirtualFile virtualFile = file.getVirtualFile();
+        return virtualFile != null && visited.add(virtualFile);
     }
 }
@@ -20,6 +20,7 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.css.CssRuleset;
 import com.intellij.psi.css.CssSelectorList;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * This class will only be loaded if the LESS plugin is active. See {@link CssPluginsFacade#getMixinProcessor(PsiElement, String)}
@@ -37,6 +38,18 @@ public class LessMixinProcessor extends CssResolveProcessor {
         return super.executeInScope(base);
     }
 
+    @Nullable
+    @Override
+    public String getDeclarationName(@NotNull PsiElement element) {
+        if (element instanceof CssRuleset) {
+            CssSelectorList selectorList = ((CssRuleset) element).getSelectorList();
+            if (selectorList != null && selectorList.getSelectors().length == 1) {
+                return selectorList.getText();
+            }
+        }
+        return null;
+    }
+
     @Override
     public boolean executeInternal(@NotNull PsiElement element) {
         if (element instanceof CssRuleset) {
@@ -71,6 +71,12 @@ public class LessVariableProcessor extends CssResolveProcessor {
         return true;
     }
 
+    @Nullable
+    @Override
+    public String getDeclarationName(@NotNull PsiElement element) {
+        return element instanceof LESSVariableDeclaration ? ((LESSVariableDeclaration) element).getName() : null;
+    }
+
     public boolean executeInternal(@NotNull PsiElement element) {
         if (element instanceof LESSVariableDeclaration) {
             LESSVariableDeclaration lessVariableDeclaration = (LESSVariableDeclaration) element;
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire.resolve;
+
+import com.github.cssxfire.CssUtils;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.openapi.util.Trinity;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * <p>Caches the results of resolving variables and mixins through the import graph, per (file, kind, name).
+ * Local lookups (e.g. mixin parameters) depend on the position of the reference and are never cached here.
+ * Results are held through smart pointers, so the cache never keeps PSI trees from being collected.</p>
+ * <p>All results are dropped whenever a Less or Sass file changes. Changes to other files do not affect resolving
+ * and leave the cache intact.</p>
+ */
+public class ResolveCache implements Disposable {
+    public static final String VARIABLE = "variable";
+    public static final String MIXIN = "mixin";
+
+    private final SimpleModificationTracker modificationTracker = new SimpleModificationTracker();
+    private final Project project;
+    private final CachedValue<ConcurrentMap<Trinity<VirtualFile, String, String>, Ref<SmartPsiElementPointer<PsiElement>>>> results;
+
+    public ResolveCache(@NotNull Project project) {
+        this.project = project;
+        results = CachedValuesManager.getManager(project).createCachedValue(
+                () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), modificationTracker), false);
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+            @Override
+            public void childAdded(@NotNull PsiTreeChangeEvent event) {
+                onPsiChange(event);
+            }
+
+            @Override
+            public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+                onPsiChange(event);
+            }
+
+            @Override
+            public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+                onPsiChange(event);
+            }
+
+            @Override
+            public void childMoved(@NotNull PsiTreeChangeEvent event) {
+                onPsiChange(event);
+            }
+
+            @Override
+            public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+                onPsiChange(event);
+            }
+
+            @Override
+            public void propertyChanged(@NotNull PsiTreeChangeEvent event) {
+                onPsiChange(event);
+            }
+        }, this);
+    }
+
+    /**
+     * Helper
+     *
+     * @param project the project
+     * @return the {@link ResolveCache} instance tied to the project
+     */
+    public static ResolveCache getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, ResolveCache.class);
+    }
+
+    /**
+     * Get the tracker which is incremented on every change to a Less or Sass file, and when the search settings change
+     *
+     * @return the modification tracker
+     */
+    @NotNull
+    public SimpleModificationTracker getModificationTracker() {
+        return modificationTracker;
+    }
+
+    /**
+     * Gets a cached result, or computes and caches a new one.
+     *
+     * @param file    the file where resolving starts
+     * @param kind    {@link #VARIABLE} or {@link #MIXIN}
+     * @param name    the name to resolve
+     * @param resolve computes the result when not cached
+     * @return the resolved element, or <tt>null</tt> if unresolved
+     */
+    @Nullable
+    public PsiElement resolve(@NotNull PsiFile file, @NotNull String kind, @NotNull String name, @NotNull Supplier<PsiElement> resolve) {
+        VirtualFile virtualFile = file.getVirtualFile();
+        if (virtualFile == null) {
+            // Not a physical file, nothing to key on
+            return resolve.get();
+        }
+        ConcurrentMap<Trinity<VirtualFile, String, String>, Ref<SmartPsiElementPointer<PsiElement>>> cache = results.getValue();
+        Trinity<VirtualFile, String, String> key = Trinity.create(virtualFile, kind, name);
+        Ref<SmartPsiElementPointer<PsiElement>> cached = cache.get(key);
+        if (cached != null) {
+            SmartPsiElementPointer<PsiElement> pointer = cached.get();
+            if (pointer == null) {
+                return null;
+            }
+            PsiElement result = pointer.getElement();
+            if (result != null) {
+                return result;
+            }
+            // the element is gone, resolve again
+        }
+        PsiElement result = resolve.get();
+        cache.put(key, Ref.create(result != null ? SmartPointerManager.getInstance(project).createSmartPsiElementPointer(result) : null));
+        return result;
+    }
+
+    /**
+     * Drops all results. Should be called when the search settings change.
+     */
+    public void invalidate() {
+        modificationTracker.incModificationCount();
+    }
+
+    private void onPsiChange(@NotNull PsiTreeChangeEvent event) {
+        PsiFile file = event.getFile();
+        if (file != null ? CssUtils.isDynamicCssLanguage(file) : isStructuralChange(event)) {
+            modificationTracker.incModificationCount();
+        }
+    }
+
+    private static boolean isStructuralChange(@NotNull PsiTreeChangeEvent event) {
+        // Files and directories added, removed or moved may change what imports resolve to
+        for (PsiElement element : new PsiElement[]{event.getChild(), event.getOldChild(), event.getNewChild(), event.getElement()}) {
+            if (element instanceof PsiDirectory || element instanceof PsiFile && CssUtils.isDynamicCssLanguage(element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void dispose() {
+    }
+}
@@ -18,6 +18,7 @@ package com.github.cssxfire.resolve;
 
 import com.intellij.psi.PsiElement;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.plugins.scss.psi.SCSSMixinDeclaration;
 
 /**
@@ -36,6 +37,13 @@ public class ScssMixinProcessor extends CssResolveProcessor {
         return super.executeInScope(base);
     }
 
+    @Nullable
+    @Override
+    public String getDeclarationName(@NotNull PsiElement element) {
+        // index the declaration itself, its children are matched when resolving
+        return element instanceof SCSSMixinDeclaration ? ((SCSSMixinDeclaration) element).getName() : null;
+    }
+
     @Override
     public boolean executeInternal(@NotNull PsiElement element) {
         if (element.getParent() instanceof SCSSMixinDeclaration) {
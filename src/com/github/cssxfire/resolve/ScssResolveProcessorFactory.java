@@ -0,0 +1,34 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire.resolve;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Registered only if the SASS plugin is active, see <tt>cssxfire-sass.xml</tt>
+ */
+public class ScssResolveProcessorFactory implements CssResolveProcessorFactory {
+    @NotNull
+    public CssResolveProcessor createVariableProcessor(String name) {
+        return new ScssVariableProcessor(name);
+    }
+
+    @NotNull
+    public CssResolveProcessor createMixinProcessor(String name) {
+        return new ScssMixinProcessor(name);
+    }
+}
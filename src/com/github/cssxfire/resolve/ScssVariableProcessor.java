@@ -71,6 +71,12 @@ public class ScssVariableProcessor extends CssResolveProcessor {
         return true;
     }
 
+    @Nullable
+    @Override
+    public String getDeclarationName(@NotNull PsiElement element) {
+        return element instanceof SassScssVariableDeclaration ? ((SassScssVariableDeclaration) element).getName() : null;
+    }
+
     public boolean executeInternal(@NotNull PsiElement element) {
         if (element instanceof SassScssVariableDeclaration) {
             SassScssVariableDeclaration scssVariableDeclaration = (SassScssVariableDeclaration) element;
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire.resolve;
+
+import com.github.cssxfire.CssUtils;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.css.CssElement;
+import com.intellij.psi.css.CssTerm;
+import com.intellij.psi.css.CssTermList;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>Follows chains of variable definitions whose value is just another variable (<tt>@a: @b; @b: #fff;</tt>) to the
+ * definition where the value is actually written.</p>
+ * <p>The root of every definition visited is remembered, so following a chain again, or any part of it, is a single
+ * map lookup. Definitions are held through smart pointers, so the graph never keeps PSI trees from being collected.
+ * Everything is forgotten when a Less or Sass file changes, and chains are then followed again on demand.</p>
+ * <p>The graph is deliberately not updated per edited file. Each link of a chain is a resolved variable reference,
+ * and an edit to any file in the import closure (a new definition shadowing an imported one, a removed import) may
+ * re-point a link in a file that was not touched. Dropping only the chains through the edited file would keep such
+ * stale links. The graph is invalidated together with the {@link ResolveCache} it is built from.</p>
+ */
+public class VariableGraph {
+    private final SmartPointerManager pointerManager;
+    private final CachedValue<ConcurrentMap<SmartPsiElementPointer<PsiElement>, SmartPsiElementPointer<PsiElement>>> roots;
+
+    public VariableGraph(@NotNull Project project) {
+        pointerManager = SmartPointerManager.getInstance(project);
+        roots = CachedValuesManager.getManager(project).createCachedValue(
+                () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), ResolveCache.getInstance(project).getModificationTracker()), false);
+    }
+
+    /**
+     * Helper
+     *
+     * @param project the project
+     * @return the {@link VariableGraph} instance tied to the project
+     */
+    public static VariableGraph getInstance(@NotNull Project project) {
+        return ServiceManager.getService(project, VariableGraph.class);
+    }
+
+    /**
+     * Get the definition at the end of the chain starting with <i>definition</i>. A chain which leads back into itself
+     * ends at the first definition seen twice.
+     *
+     * @param definition a variable definition
+     * @return the root definition, which is <i>definition</i> itself if its value is not a single variable reference
+     */
+    @NotNull
+    public PsiElement getRootDefinition(@NotNull PsiElement definition) {
+        ConcurrentMap<SmartPsiElementPointer<PsiElement>, SmartPsiElementPointer<PsiElement>> cache = roots.getValue();
+        List<SmartPsiElementPointer<PsiElement>> chain = new ArrayList<>();
+        Set<PsiElement> visited = new HashSet<>();
+        PsiElement current = definition;
+        PsiElement root;
+        while (true) {
+            SmartPsiElementPointer<PsiElement> pointer = pointerManager.createSmartPsiElementPointer(current);
+            SmartPsiElementPointer<PsiElement> knownPointer = cache.get(pointer);
+            PsiElement known = knownPointer != null ? knownPointer.getElement() : null;
+            if (known != null) {
+                root = known;
+                break;
+            }
+            if (!visited.add(current)) {
+                root = current;
+                break;
+            }
+            chain.add(pointer);
+            PsiElement next = getReferencedDefinition(current);
+            if (next == null) {
+                root = current;
+                break;
+            }
+            current = next;
+        }
+        SmartPsiElementPointer<PsiElement> rootPointer = pointerManager.createSmartPsiElementPointer(root);
+        for (SmartPsiElementPointer<PsiElement> pointer : chain) {
+            cache.put(pointer, rootPointer);
+        }
+        return root;
+    }
+
+    @Nullable
+    private static PsiElement getReferencedDefinition(@NotNull PsiElement definition) {
+        //noinspection unchecked
+        CssElement value = PsiTreeUtil.getChildOfAnyType(definition, CssTermList.class, CssTerm.class);
+        if (value instanceof CssTermList) {
+            CssTerm[] terms = ((CssTermList) value).getTerms();
+            return terms.length == 1 ? CssUtils.resolveVariableReference(terms[0]) : null;
+        }
+        return value instanceof CssTerm ? CssUtils.resolveVariableReference((CssTerm) value) : null;
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire.sourcemap;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.ArrayUtil;
+import gnu.trove.TIntArrayList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * <p>A decoded version 3 source map. The VLQ encoded mappings are decoded once into parallel primitive arrays,
+ * one entry per segment, with the segments of each generated line stored consecutively. Segments without a source
+ * location are dropped.</p>
+ * <p>The map is streamed from the file, and the embedded <tt>sourcesContent</tt> is skipped without ever being
+ * materialized. The file is closed as soon as it is parsed, so a compiler can rewrite it at any time.</p>
+ */
+public class SourceMap {
+    private static final Logger LOG = Logger.getInstance(SourceMap.class.getName());
+
+    private static final Key<CachedValue<Map<VirtualFile, SourceMap>>> SOURCE_MAPS = Key.create("cssxfire.sourceMaps");
+    private static final int MAX_CACHED_MAPS = 32;
+    private static final String BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+    private static final int[] BASE64_VALUES = new int[128];
+
+    static {
+        Arrays.fill(BASE64_VALUES, -1);
+        for (int i = 0; i < BASE64.length(); i++) {
+            BASE64_VALUES[BASE64.charAt(i)] = i;
+        }
+    }
+
+    @NotNull
+    private final VirtualFile mapFile;
+    private final long modificationStamp;
+    @Nullable
+    private final String file;
+    @NotNull
+    private final String[] sources;
+    // segments of generated line n are found at [lineStarts[n], lineStarts[n + 1])
+    @NotNull
+    private final int[] lineStarts;
+    @NotNull
+    private final int[] generatedColumns;
+    @NotNull
+    private final int[] sourceIndices;
+    @NotNull
+    private final int[] sourceLines;
+    @NotNull
+    private final int[] sourceColumns;
+
+    private SourceMap(@NotNull VirtualFile mapFile, long modificationStamp, @Nullable String file, @NotNull String[] sources,
+                      @NotNull int[] lineStarts, @NotNull int[] generatedColumns, @NotNull int[] sourceIndices,
+                      @NotNull int[] sourceLines, @NotNull int[] sourceColumns) {
+        this.mapFile = mapFile;
+        this.modificationStamp = modificationStamp;
+        this.file = file;
+        this.sources = sources;
+        this.lineStarts = lineStarts;
+        this.generatedColumns = generatedColumns;
+        this.sourceIndices = sourceIndices;
+        this.sourceLines = sourceLines;
+        this.sourceColumns = sourceColumns;
+    }
+
+    /**
+     * Get the decoded map of a <tt>.map</tt> file. The most recently used maps are kept with the project, each until
+     * its file is modified.
+     *
+     * @param project the project
+     * @param mapFile the source map file
+     * @return the decoded source map, or <tt>null</tt> if the file could not be read or is not a valid source map
+     */
+    @Nullable
+    public static SourceMap getSourceMap(@NotNull Project project, @NotNull VirtualFile mapFile) {
+        if (!mapFile.isValid()) {
+            return null;
+        }
+        Map<VirtualFile, SourceMap> sourceMaps = CachedValuesManager.getManager(project).getCachedValue(project, SOURCE_MAPS,
+                () -> CachedValueProvider.Result.create(Collections.synchronizedMap(new LinkedHashMap<VirtualFile, SourceMap>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<VirtualFile, SourceMap> eldest) {
+                        return size() > MAX_CACHED_MAPS;
+                    }
+                }), ModificationTracker.NEVER_CHANGED), false);
+        long modificationStamp = mapFile.getModificationStamp();
+        SourceMap sourceMap = sourceMaps.get(mapFile);
+        if (sourceMap == null || sourceMap.modificationStamp != modificationStamp) {
+            try {
+                sourceMap = parse(mapFile, modificationStamp);
+            } catch (IOException | RuntimeException e) {
+                LOG.debug("Unable to read source map " + mapFile.getPath(), e);
+                // remember the failure until the file changes
+                sourceMap = new SourceMap(mapFile, modificationStamp, null, ArrayUtil.EMPTY_STRING_ARRAY, new int[]{0},
+                        ArrayUtil.EMPTY_INT_ARRAY, ArrayUtil.EMPTY_INT_ARRAY, ArrayUtil.EMPTY_INT_ARRAY, ArrayUtil.EMPTY_INT_ARRAY);
+            }
+            sourceMaps.put(mapFile, sourceMap);
+        }
+        return sourceMap.lineStarts.length > 1 ? sourceMap : null;
+    }
+
+    /**
+     * @return the name of the generated file as given by the map, or <tt>null</tt> if not present
+     */
+    @Nullable
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Finds the source location of a position in the generated file. The closest segment starting at or before
+     * <i>column</i> is used, or the first segment of the line if there is none.
+     *
+     * @param line   the zero based line in the generated file
+     * @param column the zero based column in the generated file
+     * @return the source location, or <tt>null</tt> if the line has no mappings or the source file can not be found
+     */
+    @Nullable
+    public Mapping findMapping(int line, int column) {
+        if (line < 0 || line + 1 >= lineStarts.length) {
+            return null;
+        }
+        int best = -1;
+        int first = -1;
+        for (int i = lineStarts[line]; i < lineStarts[line + 1]; i++) {
+            int generatedColumn = generatedColumns[i];
+            if (generatedColumn <= column && (best == -1 || generatedColumn >= generatedColumns[best])) {
+                best = i;
+            }
+            if (first == -1 || generatedColumn < generatedColumns[first]) {
+                first = i;
+            }
+        }
+        if (best == -1) {
+            best = first;
+        }
+        if (best == -1) {
+            return null;
+        }
+        VirtualFile source = resolveSource(sourceIndices[best]);
+        return source != null ? new Mapping(source, sourceLines[best], sourceColumns[best]) : null;
+    }
+
+    @Nullable
+    private VirtualFile resolveSource(int index) {
+        if (index < 0 || index >= sources.length) {
+            return null;
+        }
+        String source = sources[index];
+        int scheme = source.indexOf("://");
+        if (scheme != -1) {
+            VirtualFile file = VirtualFileManager.getInstance().findFileByUrl(source);
+            if (file != null) {
+                return file;
+            }
+            // e.g. webpack:///./src/main.scss, try relative to the map
+            source = StringUtil.trimStart(source.substring(scheme + 3), "/");
+        } else if (FileUtil.isAbsolute(source)) {
+            VirtualFile file = LocalFileSystem.getInstance().findFileByPath(source);
+            if (file != null) {
+                return file;
+            }
+        }
+        VirtualFile directory = mapFile.getParent();
+        VirtualFile file = directory != null ? directory.findFileByRelativePath(source) : null;
+        return file != null && !file.isDirectory() ? file : null;
+    }
+
+    @NotNull
+    private static SourceMap parse(@NotNull VirtualFile mapFile, long modificationStamp) throws IOException {
+        String file = null;
+        String sourceRoot = "";
+        List<String> sources = new ArrayList<>();
+        String mappings = null;
+
+        try (JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(mapFile.getInputStream(), StandardCharsets.UTF_8)))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.skipValue();
+                } else if ("file".equals(name)) {
+                    file = reader.nextString();
+                } else if ("sourceRoot".equals(name)) {
+                    sourceRoot = reader.nextString();
+                } else if ("sources".equals(name)) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        if (reader.peek() == JsonToken.NULL) {
+                            reader.skipValue();
+                            sources.add("");
+                        } else {
+                            sources.add(reader.nextString());
+                        }
+                    }
+                    reader.endArray();
+                } else if ("mappings".equals(name)) {
+                    mappings = reader.nextString();
+                } else {
+                    // version, names, sourcesContent, sections (index maps are not supported)...
+                    reader.skipValue();
+                }
+            }
+        }
+        if (mappings == null) {
+            throw new IOException("No mappings");
+        }
+
+        String[] resolvedSources = new String[sources.size()];
+        for (int i = 0; i < resolvedSources.length; i++) {
+            String source = sources.get(i);
+            resolvedSources[i] = sourceRoot.isEmpty() || source.contains("://") || FileUtil.isAbsolute(source)
+                    ? source : StringUtil.trimEnd(sourceRoot, "/") + "/" + source;
+        }
+
+        TIntArrayList lineStarts = new TIntArrayList();
+        TIntArrayList generatedColumns = new TIntArrayList();
+        TIntArrayList sourceIndices = new TIntArrayList();
+        TIntArrayList sourceLines = new TIntArrayList();
+        TIntArrayList sourceColumns = new TIntArrayList();
+        lineStarts.add(0);
+
+        // all fields but the generated column are relative to the previous segment, across lines
+        int[] fields = new int[5];
+        int column = 0, source = 0, sourceLine = 0, sourceColumn = 0;
+        int i = 0, length = mappings.length();
+        while (i < length) {
+            char c = mappings.charAt(i);
+            if (c == ';') {
+                lineStarts.add(generatedColumns.size());
+                column = 0;
+                i++;
+                continue;
+            }
+            if (c == ',') {
+                i++;
+                continue;
+            }
+            int count = 0;
+            while (i < length && (c = mappings.charAt(i)) != ',' && c != ';') {
+                int value = 0, shift = 0, digit;
+                do {
+                    if (i >= length) {
+                        throw new IOException("Truncated VLQ value at " + i);
+                    }
+                    c = mappings.charAt(i++);
+                    digit = c < BASE64_VALUES.length ? BASE64_VALUES[c] : -1;
+                    if (digit == -1) {
+                        throw new IOException("Invalid base64 character '" + c + "' at " + (i - 1));
+                    }
+                    value += (digit & 31) << shift;
+                    shift += 5;
+                } while ((digit & 32) != 0);
+                if (count < fields.length) {
+                    fields[count] = (value & 1) != 0 ? -(value >>> 1) : value >>> 1;
+                }
+                count++;
+            }
+            column += fields[0];
+            if (count >= 4) {
+                source += fields[1];
+                sourceLine += fields[2];
+                sourceColumn += fields[3];
+                generatedColumns.add(column);
+                sourceIndices.add(source);
+                sourceLines.add(sourceLine);
+                sourceColumns.add(sourceColumn);
+            }
+        }
+        lineStarts.add(generatedColumns.size());
+
+        return new SourceMap(mapFile, modificationStamp, file, resolvedSources, lineStarts.toNativeArray(),
+                generatedColumns.toNativeArray(), sourceIndices.toNativeArray(), sourceLines.toNativeArray(), sourceColumns.toNativeArray());
+    }
+
+    /**
+     * A location in a source file.
+     */
+    public static class Mapping {
+        @NotNull
+        private final VirtualFile source;
+        private final int line;
+        private final int column;
+
+        private Mapping(@NotNull VirtualFile source, int line, int column) {
+            this.source = source;
+            this.line = line;
+            this.column = column;
+        }
+
+        @NotNull
+        public VirtualFile getSource() {
+            return source;
+        }
+
+        /**
+         * @return the zero based line
+         */
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * @return the zero based column
+         */
+        public int getColumn() {
+            return column;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire.sourcemap;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Maps the names of generated stylesheets to their <tt>.css.map</tt> files. A map is indexed under the name in its
+ * <tt>file</tt> property, and under its own name without the <tt>.map</tt> extension. Only the file name is read at
+ * indexing time; the mappings are decoded on demand by {@link SourceMap}.</p>
+ */
+public class SourceMapIndex extends ScalarIndexExtension<String> {
+    public static final ID<String, Void> NAME = ID.create("cssxfire.SourceMaps");
+
+    private static final String MAP_EXTENSION = ".css.map";
+    private static final Pattern FILE_PATTERN = Pattern.compile("\"file\"\\s*:\\s*\"([^\"]*)\"");
+    private static final Pattern SOURCE_MAPPING_URL_PATTERN = Pattern.compile("[#@]\\s*sourceMappingURL\\s*=\\s*(\\S+?)\\s*(?:\\*/|$)", Pattern.MULTILINE);
+    // the sourceMappingURL comment is expected at the end of the generated file
+    private static final int SOURCE_MAPPING_URL_TAIL = 1024;
+
+    @NotNull
+    @Override
+    public ID<String, Void> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, Void, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, Void> result = new HashMap<>();
+            result.put(StringUtil.trimEnd(inputData.getFileName(), ".map"), null);
+            Matcher matcher = FILE_PATTERN.matcher(inputData.getContentAsText());
+            if (matcher.find()) {
+                String file = matcher.group(1);
+                file = file.substring(file.lastIndexOf('/') + 1);
+                if (!file.isEmpty()) {
+                    result.put(file, null);
+                }
+            }
+            return result;
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return file -> StringUtil.endsWithIgnoreCase(file.getName(), MAP_EXTENSION);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Finds the source map of a generated stylesheet. The <tt>sourceMappingURL</tt> comment of the stylesheet is
+     * used if present, then a <tt>.map</tt> file next to it, and last a map found in this index, if there is only one.
+     *
+     * @param project       the project
+     * @param generatedFile the generated stylesheet
+     * @return the source map file, or <tt>null</tt> if none is found
+     */
+    @Nullable
+    public static VirtualFile findSourceMapFile(@NotNull Project project, @NotNull VirtualFile generatedFile) {
+        VirtualFile directory = generatedFile.getParent();
+        if (directory == null) {
+            return null;
+        }
+        String url = findSourceMappingUrl(generatedFile);
+        if (url != null && !url.startsWith("data:") && !url.contains("://")) {
+            VirtualFile mapFile = directory.findFileByRelativePath(StringUtil.trimEnd(StringUtil.substringBefore(url + "?", "?"), "/"));
+            if (mapFile != null && !mapFile.isDirectory()) {
+                return mapFile;
+            }
+        }
+        VirtualFile sibling = directory.findChild(generatedFile.getName() + ".map");
+        if (sibling != null) {
+            return sibling;
+        }
+        if (DumbService.isDumb(project)) {
+            return null;
+        }
+        Collection<VirtualFile> mapFiles = FileBasedIndex.getInstance().getContainingFiles(NAME, generatedFile.getName(), GlobalSearchScope.allScope(project));
+        return mapFiles.size() == 1 ? mapFiles.iterator().next() : null;
+    }
+
+    @Nullable
+    private static String findSourceMappingUrl(@NotNull VirtualFile generatedFile) {
+        Document document = FileDocumentManager.getInstance().getDocument(generatedFile);
+        if (document == null) {
+            return null;
+        }
+        CharSequence text = document.getCharsSequence();
+        Matcher matcher = SOURCE_MAPPING_URL_PATTERN.matcher(text.subSequence(Math.max(0, text.length() - SOURCE_MAPPING_URL_TAIL), text.length()));
+        String url = null;
+        while (matcher.find()) {
+            url = matcher.group(1);
+        }
+        return url;
+    }
+}
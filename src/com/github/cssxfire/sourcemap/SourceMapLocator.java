@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 CSS-X-Fire contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.cssxfire.sourcemap;
+
+import com.github.cssxfire.FirebugChangesBean;
+import com.github.cssxfire.StringUtils;
+import com.github.cssxfire.StylesheetSearchScope;
+import com.github.cssxfire.index.CssTextScanner;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.css.CssBlock;
+import com.intellij.psi.css.CssRuleset;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>Routes a change reported for a generated stylesheet to the Less or Sass rule it was compiled from. The rule is
+ * located in the generated file by its selector and media, and its position is translated through the source map.
+ * Generated stylesheets are often large bundles, so they are scanned as text (see {@link CssTextScanner}) rather
+ * than parsed; only the source files get PSI.</p>
+ */
+public class SourceMapLocator {
+    private static final Logger LOG = Logger.getInstance(SourceMapLocator.class.getName());
+
+    private SourceMapLocator() {
+    }
+
+    /**
+     * Finds the source blocks of the rule changed in Firebug.
+     *
+     * @param project     the project
+     * @param changesBean the change, with routes applied
+     * @return the source blocks, or <tt>null</tt> if the stylesheet has no source map or the rule could not be mapped
+     */
+    @Nullable
+    public static CssBlock[] findSourceBlocks(@NotNull Project project, @NotNull FirebugChangesBean changesBean) {
+        if (changesBean.getFilename().isEmpty()) {
+            return null;
+        }
+        Set<CssBlock> blocks = new LinkedHashSet<>();
+        for (VirtualFile generatedFile : findGeneratedFiles(project, changesBean)) {
+            VirtualFile mapFile = SourceMapIndex.findSourceMapFile(project, generatedFile);
+            SourceMap sourceMap = mapFile != null ? SourceMap.getSourceMap(project, mapFile) : null;
+            if (sourceMap == null) {
+                continue;
+            }
+            Document generatedDocument = FileDocumentManager.getInstance().getDocument(generatedFile);
+            if (generatedDocument == null) {
+                continue;
+            }
+            for (int offset : findRuleOffsets(generatedDocument.getCharsSequence(), changesBean)) {
+                int line = generatedDocument.getLineNumber(offset);
+                SourceMap.Mapping mapping = sourceMap.findMapping(line, offset - generatedDocument.getLineStartOffset(line));
+                CssBlock block = mapping != null ? findSourceBlock(project, mapping) : null;
+                if (block != null) {
+                    blocks.add(block);
+                }
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Mapped '" + changesBean.getSelector() + "' in " + changesBean.getFilename() + " to " + blocks.size() + " source blocks");
+        }
+        return blocks.isEmpty() ? null : blocks.toArray(new CssBlock[0]);
+    }
+
+    /**
+     * Get the files which could be the stylesheet reported by Firebug. Files whose path ends with the reported path
+     * are preferred over files with just the same name. Generated files are usually excluded from the stylesheet search
+     * scope, so only the search roots apply (see {@link StylesheetSearchScope#createForGenerated(Project)}).
+     */
+    @NotNull
+    private static Collection<VirtualFile> findGeneratedFiles(@NotNull Project project, @NotNull FirebugChangesBean changesBean) {
+        Collection<VirtualFile> files = FilenameIndex.getVirtualFilesByName(project, changesBean.getFilename(), StylesheetSearchScope.createForGenerated(project));
+        List<VirtualFile> pathMatches = new ArrayList<>();
+        for (VirtualFile file : files) {
+            if (!changesBean.getPath().isEmpty() && file.getPath().endsWith(changesBean.getPath())) {
+                pathMatches.add(file);
+            }
+        }
+        return pathMatches.isEmpty() ? files : pathMatches;
+    }
+
+    /**
+     * Get the start offsets of the rules with the selector and media of the change in a generated stylesheet.
+     */
+    @NotNull
+    private static List<Integer> findRuleOffsets(@NotNull CharSequence text, @NotNull FirebugChangesBean changesBean) {
+        String selector = StringUtils.normalizeWhitespace(changesBean.getSelector());
+        String media = StringUtils.canonicalizeMedia(changesBean.getMedia());
+        List<Integer> offsets = new ArrayList<>();
+        CssTextScanner.scan(text, new CssTextScanner.Visitor() {
+            @Override
+            public void visitRule(@NotNull String ruleSelector, int offset, @NotNull CharSequence block, @NotNull String ruleMedia) {
+                if (selector.equals(StringUtils.normalizeWhitespace(ruleSelector))
+                        && media.equals(StringUtils.canonicalizeMedia(ruleMedia))) {
+                    offsets.add(offset);
+                }
+            }
+        });
+        return offsets;
+    }
+
+    @Nullable
+    private static CssBlock findSourceBlock(@NotNull Project project, @NotNull SourceMap.Mapping mapping) {
+        PsiFile sourceFile = PsiManager.getInstance(project).findFile(mapping.getSource());
+        Document document = sourceFile != null ? PsiDocumentManager.getInstance(project).getDocument(sourceFile) : null;
+        if (document == null || mapping.getLine() >= document.getLineCount()) {
+            return null;
+        }
+        int offset = Math.min(document.getLineStartOffset(mapping.getLine()) + mapping.getColumn(), document.getLineEndOffset(mapping.getLine()));
+        CssRuleset ruleset = PsiTreeUtil.getParentOfType(sourceFile.findElementAt(offset), CssRuleset.class, false);
+        return ruleset != null ? ruleset.getBlock() : null;
+    }
+}
@@ -18,9 +18,12 @@ package com.github.cssxfire.tree;
 
 import com.intellij.openapi.project.Project;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeNode;
+import java.util.Enumeration;
 
 public class CssChangesTreeModel extends DefaultTreeModel {
     public CssChangesTreeModel(Project project) {
@@ -133,6 +136,66 @@ public class CssChangesTreeModel extends DefaultTreeModel {
         parent.add(child);
     }
 
+    @Override
+    public void nodesChanged(TreeNode node, int[] childIndices) {
+        if (node != null) {
+            if (childIndices == null) {
+                updatePresentation(node);
+            } else {
+                for (int childIndex : childIndices) {
+                    updatePresentation(node.getChildAt(childIndex));
+                }
+            }
+        }
+        super.nodesChanged(node, childIndices);
+    }
+
+    @Override
+    public void nodesWereInserted(TreeNode node, int[] childIndices) {
+        if (node != null && childIndices != null) {
+            for (int childIndex : childIndices) {
+                updatePresentation(node.getChildAt(childIndex));
+            }
+            // leaf counts of all ancestors have changed
+            updatePresentationWithParents(node);
+        }
+        super.nodesWereInserted(node, childIndices);
+    }
+
+    @Override
+    public void nodesWereRemoved(TreeNode node, int[] childIndices, Object[] removedChildren) {
+        if (node != null) {
+            // leaf counts of all ancestors have changed
+            updatePresentationWithParents(node);
+        }
+        super.nodesWereRemoved(node, childIndices, removedChildren);
+    }
+
+    @Override
+    public void nodeStructureChanged(TreeNode node) {
+        if (node instanceof DefaultMutableTreeNode) {
+            Enumeration enumeration = ((DefaultMutableTreeNode) node).depthFirstEnumeration();
+            while (enumeration.hasMoreElements()) {
+                updatePresentation((TreeNode) enumeration.nextElement());
+            }
+            updatePresentationWithParents(node.getParent());
+        }
+        super.nodeStructureChanged(node);
+    }
+
+    private static void updatePresentationWithParents(@Nullable TreeNode node) {
+        while (node != null) {
+            updatePresentation(node);
+            node = node.getParent();
+        }
+    }
+
+    private static void updatePresentation(@Nullable TreeNode node) {
+        if (node instanceof CssTreeNode) {
+            ((CssTreeNode) node).updatePresentation();
+        }
+    }
+
     private static boolean isNewAndDeletedDeclaration(DefaultMutableTreeNode node) {
         return node instanceof CssNewDeclarationNode && ((CssNewDeclarationNode) node).isDeleted();
     }
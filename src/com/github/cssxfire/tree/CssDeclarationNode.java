@@ -27,6 +27,8 @@ import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.vcs.FileStatus;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
 import com.intellij.psi.css.CssDeclaration;
 import com.intellij.psi.css.CssElement;
 import com.intellij.psi.css.CssTerm;
@@ -36,20 +38,24 @@ import com.intellij.ui.SimpleTextAttributes;
 import com.intellij.util.IncorrectOperationException;
 import com.intellij.util.ui.EmptyIcon;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.Objects;
 
 public class CssDeclarationNode extends CssTreeNode implements Navigatable {
     private static final Logger LOG = Logger.getInstance(CssDeclarationNode.class);
-    protected final CssDeclaration cssDeclaration;
+    @NotNull
+    protected final SmartPsiElementPointer<CssDeclaration> cssDeclaration;
+    @NotNull
+    protected final String propertyName;
     protected final String value;
     protected boolean deleted;
     protected boolean important;
 
-    public CssDeclarationNode(CssDeclaration cssDeclaration, String value, boolean deleted, boolean important) {
-        this.cssDeclaration = cssDeclaration;
+    public CssDeclarationNode(@NotNull CssDeclaration cssDeclaration, String value, boolean deleted, boolean important) {
+        this.cssDeclaration = SmartPointerManager.createPointer(cssDeclaration);
+        this.propertyName = cssDeclaration.getPropertyName();
         this.value = value;
         this.deleted = deleted;
         this.important = important;
@@ -62,12 +68,15 @@ public class CssDeclarationNode extends CssTreeNode implements Navigatable {
 
     @Override
     public Icon getIcon() {
-        return isValid() ? cssDeclaration.getIcon(Iconable.ICON_FLAG_VISIBILITY | Iconable.ICON_FLAG_READ_STATUS) : EmptyIcon.ICON_16;
+        CssDeclaration declaration = cssDeclaration.getElement();
+        return declaration != null && declaration.isValid()
+                ? declaration.getIcon(Iconable.ICON_FLAG_VISIBILITY | Iconable.ICON_FLAG_READ_STATUS)
+                : EmptyIcon.ICON_16;
     }
 
     @Override
     public String getName() {
-        return cssDeclaration.getPropertyName();
+        return propertyName;
     }
 
     @Override
@@ -83,11 +92,25 @@ public class CssDeclarationNode extends CssTreeNode implements Navigatable {
     }
 
     public boolean isValid() {
-        return cssDeclaration.isValid();
+        CssDeclaration declaration = cssDeclaration.getElement();
+        return declaration != null && declaration.isValid();
     }
 
+    @NotNull
     public String getPropertyName() {
-        return cssDeclaration.getPropertyName();
+        return propertyName;
+    }
+
+    /**
+     * Restores the declaration this node points to. The PSI is not held by the node, so the element may have been
+     * re-created (or removed) since the node was created.
+     *
+     * @return the declaration, or <tt>null</tt> if it no longer exists
+     */
+    @Nullable
+    protected CssDeclaration getCssDeclaration() {
+        CssDeclaration declaration = cssDeclaration.getElement();
+        return declaration != null && declaration.isValid() ? declaration : null;
     }
 
     /**
@@ -96,15 +119,16 @@ public class CssDeclarationNode extends CssTreeNode implements Navigatable {
      */
     public void applyToCode() {
         try {
-            if (isValid()) {
+            CssDeclaration declaration = getCssDeclaration();
+            if (declaration != null) {
                 if (deleted) {
-                    PsiElement nextSibling = cssDeclaration.getNextSibling();
+                    PsiElement nextSibling = declaration.getNextSibling();
                     if (nextSibling != null && ";".equals(nextSibling.getText())) {
                         nextSibling.delete(); // delete trailing semi-colon
                     }
-                    cssDeclaration.delete();
+                    declaration.delete();
                 } else {
-                    if (cssDeclaration.isImportant() == important) {
+                    if (declaration.isImportant() == important) {
                         // Priority not changed - only need to alter the value text.
                         CssElement navigationElement = getNavigationElement();
                         if (navigationElement instanceof CssTerm) {
@@ -116,8 +140,8 @@ public class CssDeclarationNode extends CssTreeNode implements Navigatable {
                         }
                     } else {
                         // Priority has changed. In this case we need to create a new declaration element and replace the old one.
-                        CssDeclaration newDeclaration = CssUtils.createDeclaration(cssDeclaration.getProject(), ".foo", cssDeclaration.getPropertyName(), value, important);
-                        cssDeclaration.replace(newDeclaration);
+                        CssDeclaration newDeclaration = CssUtils.createDeclaration(declaration.getProject(), ".foo", declaration.getPropertyName(), value, important);
+                        declaration.replace(newDeclaration);
                     }
                 }
             }
@@ -133,11 +157,12 @@ public class CssDeclarationNode extends CssTreeNode implements Navigatable {
     }
 
     protected CssElement getNavigationElement() {
-        if (!isValid()) {
+        CssDeclaration declaration = getCssDeclaration();
+        if (declaration == null) {
             return null;
         }
-        if (CssUtils.isDynamicCssLanguage(cssDeclaration) && CssXFireSettings.getInstance(cssDeclaration.getProject()).isResolveVariables()) {
-            PsiElement assignment = CssUtils.resolveVariableAssignment(cssDeclaration);
+        if (CssUtils.isDynamicCssLanguage(declaration) && CssXFireSettings.getInstance(declaration.getProject()).isResolveVariables()) {
+            PsiElement assignment = CssUtils.resolveVariableAssignment(declaration);
             if (assignment != null) {
                 //noinspection unchecked
                 CssElement terms = PsiTreeUtil.getChildOfAnyType(assignment, CssTermList.class, CssTerm.class);
@@ -146,7 +171,7 @@ public class CssDeclarationNode extends CssTreeNode implements Navigatable {
                 }
             }
         }
-        return cssDeclaration;
+        return declaration;
     }
 
     public void navigate() {
@@ -172,18 +197,13 @@ public class CssDeclarationNode extends CssTreeNode implements Navigatable {
 
         CssDeclarationNode that = (CssDeclarationNode) o;
 
-        if (!Objects.equals(cssDeclaration, that.cssDeclaration)) {
-            return false;
-        }
-
-        return true;
+        return propertyName.equals(that.propertyName)
+                && SmartPointerManager.getInstance(cssDeclaration.getProject()).pointToTheSameElement(cssDeclaration, that.cssDeclaration);
     }
 
     @Override
     public int hashCode() {
-        int result = cssDeclaration != null ? cssDeclaration.hashCode() : 0;
-        result = 31 * result + (value != null ? value.hashCode() : 0);
-        return result;
+        return propertyName.hashCode();
     }
 
     public boolean isDeleted() {
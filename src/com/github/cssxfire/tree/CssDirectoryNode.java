@@ -23,30 +23,54 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Iconable;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.util.ui.EmptyIcon;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
+import java.util.Objects;
 
 public class CssDirectoryNode extends CssTreeNode {
-    @NotNull  private final PsiDirectory directory;
+    @NotNull  private final SmartPsiElementPointer<PsiDirectory> directory;
+    private String name;
 
     public CssDirectoryNode(@NotNull PsiDirectory directory) {
-        this.directory = directory;
+        this.directory = SmartPointerManager.createPointer(directory);
     }
 
     @Override
     public Icon getIcon() {
+        PsiDirectory directory = this.directory.getElement();
+        if (directory == null) {
+            return EmptyIcon.ICON_16;
+        }
         ItemPresentation presentation = directory.getPresentation();
         return presentation != null ? presentation.getIcon(true) : directory.getIcon(Iconable.ICON_FLAG_VISIBILITY | Iconable.ICON_FLAG_READ_STATUS);
     }
 
     @Override
     public String getName() {
+        if (name == null) {
+            name = computeName();
+        }
+        return name;
+    }
+
+    @Override
+    public void updatePresentation() {
+        // the directory may have been renamed or moved
+        name = computeName();
+        super.updatePresentation();
+    }
+
+    private String computeName() {
         Project project = directory.getProject();
         VirtualFile baseDir = project.getBaseDir();
         String projectPath = baseDir != null ? baseDir.getPath() : null;
 
-        String directoryPath = directory.getVirtualFile().getPath();
+        VirtualFile virtualFile = directory.getVirtualFile();
+        String directoryPath = virtualFile != null ? virtualFile.getPath() : "";
         if (projectPath != null && directoryPath.length() > projectPath.length() && directoryPath.startsWith(projectPath)) {
             return directoryPath.substring(projectPath.length() + 1);
         }
@@ -70,12 +94,13 @@ public class CssDirectoryNode extends CssTreeNode {
 
         CssDirectoryNode that = (CssDirectoryNode) o;
 
-        return directory.equals(that.directory);
+        return Objects.equals(directory.getVirtualFile(), that.directory.getVirtualFile());
 
     }
 
     @Override
     public int hashCode() {
-        return directory.hashCode();
+        VirtualFile virtualFile = directory.getVirtualFile();
+        return virtualFile != null ? virtualFile.hashCode() : 0;
     }
 }
@@ -22,6 +22,10 @@ import com.intellij.openapi.actionSystem.ActionManager;
 import com.intellij.openapi.util.Iconable;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.util.ui.EmptyIcon;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
@@ -29,14 +33,19 @@ import javax.swing.tree.TreeNode;
 import java.util.Objects;
 
 public class CssFileNode extends CssTreeNode implements Navigatable {
-    private final PsiFile psiFile;
-
-    public CssFileNode(PsiFile psiFile) {
-        this.psiFile = psiFile;
+    @NotNull
+    private final SmartPsiElementPointer<PsiFile> psiFile;
+    @NotNull
+    private final String filename;
+
+    public CssFileNode(@NotNull PsiFile psiFile) {
+        this.psiFile = SmartPointerManager.createPointer(psiFile);
+        this.filename = psiFile.getName();
     }
 
+    @NotNull
     public String getFilename() {
-        return psiFile.getName();
+        return filename;
     }
 
     @Nullable
@@ -46,6 +55,10 @@ public class CssFileNode extends CssTreeNode implements Navigatable {
 
     @Override
     public Icon getIcon() {
+        PsiFile psiFile = this.psiFile.getElement();
+        if (psiFile == null) {
+            return EmptyIcon.ICON_16;
+        }
         ItemPresentation presentation = psiFile.getPresentation();
         return presentation != null ? presentation.getIcon(true) : psiFile.getIcon(Iconable.ICON_FLAG_VISIBILITY | Iconable.ICON_FLAG_READ_STATUS);
     }
@@ -86,15 +99,12 @@ public class CssFileNode extends CssTreeNode implements Navigatable {
 
         CssFileNode fileNode = (CssFileNode) o;
 
-        if (!Objects.equals(psiFile, fileNode.psiFile)) {
-            return false;
-        }
-
-        return true;
+        return Objects.equals(getVirtualFile(), fileNode.getVirtualFile());
     }
 
     @Override
     public int hashCode() {
-        return psiFile != null ? psiFile.hashCode() : 0;
+        VirtualFile virtualFile = getVirtualFile();
+        return virtualFile != null ? virtualFile.hashCode() : 0;
     }
 }
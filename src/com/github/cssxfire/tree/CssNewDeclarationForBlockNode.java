@@ -29,12 +29,13 @@ public class CssNewDeclarationForBlockNode extends CssNewDeclarationNode {
     @Override
     public void applyToCode() {
         try {
-            if (isValid() && !deleted) {
-                CssDeclaration[] declarations = ((CssBlock) destinationBlock).getDeclarations();
+            CssBlock destinationBlock = (CssBlock) getDestinationElement();
+            if (destinationBlock != null && !deleted) {
+                CssDeclaration[] declarations = destinationBlock.getDeclarations();
                 CssDeclaration relativeTo = declarations != null && declarations.length > 0
                         ? declarations[declarations.length - 1]
                         : null;
-                ((CssBlock) destinationBlock).addDeclaration(property, value + (important ? " !important" : ""), relativeTo);
+                destinationBlock.addDeclaration(property, value + (important ? " !important" : ""), relativeTo);
             }
         } catch (IncorrectOperationException e) {
             e.printStackTrace();
@@ -29,7 +29,7 @@ public class CssNewDeclarationForMediumNode extends CssNewDeclarationNode {
     super(cssDeclaration, destinationElement, deleted);
   }
 
-  private CssBlock ensureSelectorTargetExists() {
+  private CssBlock ensureSelectorTargetExists(@NotNull CssMediumList destinationBlock) {
     CssSelectorNode selectorNode = getCssSelectorNode();
     String selector = selectorNode.getSelector();
 
@@ -61,8 +61,9 @@ public class CssNewDeclarationForMediumNode extends CssNewDeclarationNode {
   @Override
   public void applyToCode() {
     try {
-      if (isValid() && !deleted) {
-        CssBlock cssBlock = ensureSelectorTargetExists();
+      CssMediumList destinationBlock = (CssMediumList)getDestinationElement();
+      if (destinationBlock != null && !deleted) {
+        CssBlock cssBlock = ensureSelectorTargetExists(destinationBlock);
 
         CssDeclaration[] declarations = cssBlock.getDeclarations();
         CssDeclaration anchor = declarations.length > 0 ? declarations[declarations.length - 1] : null;
@@ -29,11 +29,10 @@ public class CssNewDeclarationForRulesetListNode extends CssNewDeclarationNode {
     super(cssDeclaration, destinationElement, deleted);
   }
 
-  private CssBlock ensureSelectorTargetExists() {
+  private CssBlock ensureSelectorTargetExists(@NotNull CssRulesetList rulesetList) {
     CssSelectorNode selectorNode = getCssSelectorNode();
     String selector = selectorNode.getSelector();
 
-    CssRulesetList rulesetList = (CssRulesetList)destinationBlock;
     CssRuleset[] rulesets = rulesetList.getRulesets();
     for (CssRuleset ruleset : rulesets) {
       CssSelectorList selectorList = ruleset.getSelectorList();
@@ -44,7 +43,7 @@ public class CssNewDeclarationForRulesetListNode extends CssNewDeclarationNode {
 
     // not found, which is also expected... we have to create a new one
 
-    CssRuleset ruleset = CssUtils.createRuleset(destinationBlock.getProject(), selector);
+    CssRuleset ruleset = CssUtils.createRuleset(rulesetList.getProject(), selector);
     PsiElement psiElement = rulesetList.add(ruleset);
     if (psiElement instanceof CssRuleset) {
       return ((CssRuleset)psiElement).getBlock();
@@ -57,8 +56,9 @@ public class CssNewDeclarationForRulesetListNode extends CssNewDeclarationNode {
   @Override
   public void applyToCode() {
     try {
-      if (isValid() && !deleted) {
-        CssBlock cssBlock = ensureSelectorTargetExists();
+      CssRulesetList rulesetList = (CssRulesetList)getDestinationElement();
+      if (rulesetList != null && !deleted) {
+        CssBlock cssBlock = ensureSelectorTargetExists(rulesetList);
 
         CssDeclaration[] declarations = cssBlock.getDeclarations();
         CssDeclaration anchor = declarations.length > 0 ? declarations[declarations.length - 1] : null;
@@ -17,18 +17,23 @@
 package com.github.cssxfire.tree;
 
 import com.intellij.openapi.vcs.FileStatus;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
 import com.intellij.psi.css.*;
 import com.intellij.ui.SimpleTextAttributes;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.tree.TreeNode;
 import java.awt.*;
 
 public abstract class CssNewDeclarationNode extends CssDeclarationNode {
     @NotNull
-    protected final CssElement destinationBlock;
+    private final SmartPsiElementPointer<CssElement> destinationBlock;
     @NotNull
     protected final String property;
+    @NotNull
+    private final String text;
 
     public static CssNewDeclarationNode forDestination(@NotNull CssDeclaration cssDeclaration, @NotNull CssElement destinationElement, boolean deleted) {
         if (destinationElement instanceof CssBlock) {
@@ -46,8 +51,20 @@ public abstract class CssNewDeclarationNode extends CssDeclarationNode {
     protected CssNewDeclarationNode(@NotNull CssDeclaration cssDeclaration, @NotNull CssElement destinationElement, boolean deleted) {
         //noinspection ConstantConditions
         super(cssDeclaration, cssDeclaration.getValue().getText(), deleted, cssDeclaration.isImportant());
-        this.destinationBlock = destinationElement;
+        this.destinationBlock = SmartPointerManager.createPointer(destinationElement);
         this.property = cssDeclaration.getPropertyName();
+        this.text = cssDeclaration.getText();
+    }
+
+    /**
+     * Restores the element which this declaration is to be inserted into.
+     *
+     * @return the destination, or <tt>null</tt> if it no longer exists
+     */
+    @Nullable
+    protected CssElement getDestinationElement() {
+        CssElement destination = destinationBlock.getElement();
+        return destination != null && destination.isValid() ? destination : null;
     }
 
     /**
@@ -59,7 +76,7 @@ public abstract class CssNewDeclarationNode extends CssDeclarationNode {
 
     @Override
     public final boolean isValid() {
-        return destinationBlock.isValid();
+        return getDestinationElement() != null;
     }
 
     @Override
@@ -69,7 +86,7 @@ public abstract class CssNewDeclarationNode extends CssDeclarationNode {
 
     @Override
     public final String getText() {
-        return cssDeclaration.getText();
+        return text;
     }
 
     @NotNull
@@ -81,7 +98,7 @@ public abstract class CssNewDeclarationNode extends CssDeclarationNode {
 
     @Override
     protected final CssElement getNavigationElement() {
-        return isValid() ? destinationBlock : null;
+        return getDestinationElement();
     }
 
     @NotNull
@@ -100,14 +117,12 @@ public abstract class CssNewDeclarationNode extends CssDeclarationNode {
 
         CssNewDeclarationNode that = (CssNewDeclarationNode) o;
 
-        return property.equals(that.property) && destinationBlock.equals(that.destinationBlock);
+        return property.equals(that.property)
+                && SmartPointerManager.getInstance(destinationBlock.getProject()).pointToTheSameElement(destinationBlock, that.destinationBlock);
     }
 
     @Override
     public final int hashCode() {
-        int result = super.hashCode();
-        result = 31 * result + destinationBlock.hashCode();
-        result = 31 * result + property.hashCode();
-        return result;
+        return 31 * super.hashCode() + property.hashCode();
     }
 }
@@ -25,6 +25,8 @@ import com.intellij.openapi.actionSystem.ActionManager;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
 import com.intellij.psi.css.CssMediumList;
 import com.intellij.ui.SimpleTextAttributes;
 import org.jetbrains.annotations.NotNull;
@@ -35,12 +37,17 @@ public class CssSelectorNode extends CssTreeNode implements Navigatable {
     @NotNull
     private final String selector;
     @NotNull
-    protected final PsiElement cssBlock;
+    protected final SmartPsiElementPointer<PsiElement> cssBlock;
+    @NotNull
+    private final String media;
     private static final String EMPTY_STRING = "";
 
     public CssSelectorNode(@NotNull String selector, @NotNull PsiElement cssBlock) {
         this.selector = selector;
-        this.cssBlock = cssBlock;
+        this.cssBlock = SmartPointerManager.createPointer(cssBlock);
+        // captured now, the media must not change to none when the block is gone
+        CssMediumList mediumList = CssUtils.findMediumList(cssBlock);
+        this.media = mediumList == null ? EMPTY_STRING : mediumList.getText();
     }
 
     @NotNull
@@ -81,11 +88,12 @@ public class CssSelectorNode extends CssTreeNode implements Navigatable {
     }
 
     public void navigate() {
-        if (cssBlock.isValid()) {
-            SelectInEditorManager selectInEditorManager = SelectInEditorManager.getInstance(cssBlock.getProject());
-            VirtualFile virtualFile = cssBlock.getContainingFile().getVirtualFile();
+        PsiElement block = cssBlock.getElement();
+        if (block != null && block.isValid()) {
+            SelectInEditorManager selectInEditorManager = SelectInEditorManager.getInstance(block.getProject());
+            VirtualFile virtualFile = block.getContainingFile().getVirtualFile();
             if (virtualFile != null) {
-                TextRange textRange = cssBlock.getTextRange();
+                TextRange textRange = block.getTextRange();
                 selectInEditorManager.selectInEditor(virtualFile, textRange.getStartOffset(), textRange.getEndOffset(), false, false);
             }
         }
@@ -112,8 +120,6 @@ public class CssSelectorNode extends CssTreeNode implements Navigatable {
 
     @NotNull
     public String getMedia() {
-        CssMediumList mediumList = CssUtils.findMediumList(cssBlock);
-
-        return mediumList == null ? EMPTY_STRING : mediumList.getText();
+        return media;
     }
 }
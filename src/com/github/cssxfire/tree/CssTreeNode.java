@@ -25,6 +25,11 @@ import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
 
 public abstract class CssTreeNode extends DefaultMutableTreeNode {
+    private Icon presentableIcon;
+    private String presentableText;
+    private SimpleTextAttributes presentableTextAttributes;
+    private boolean presentationValid;
+
     @Nullable
     public abstract Icon getIcon();
 
@@ -57,4 +62,41 @@ public abstract class CssTreeNode extends DefaultMutableTreeNode {
     public SimpleTextAttributes getTextAttributes() {
         return SimpleTextAttributes.REGULAR_ATTRIBUTES;
     }
+
+    /**
+     * Recomputes the icon, text and text attributes used when painting this node. This is invoked by
+     * {@link CssChangesTreeModel} whenever the node (or any of its descendants) is reported as changed, so that
+     * the tree cell renderer never has to touch PSI or VFS.
+     */
+    public void updatePresentation() {
+        presentableIcon = getIcon();
+        presentableText = getText();
+        presentableTextAttributes = getTextAttributes();
+        presentationValid = true;
+    }
+
+    @Nullable
+    public Icon getPresentableIcon() {
+        ensurePresentation();
+        return presentableIcon;
+    }
+
+    @NotNull
+    public String getPresentableText() {
+        ensurePresentation();
+        return presentableText != null ? presentableText : "";
+    }
+
+    @NotNull
+    public SimpleTextAttributes getPresentableTextAttributes() {
+        ensurePresentation();
+        return presentableTextAttributes;
+    }
+
+    private void ensurePresentation() {
+        if (!presentationValid) {
+            // node has not been reported to the model yet
+            updatePresentation();
+        }
+    }
 }
@@ -419,8 +419,8 @@ public class CssToolWindow extends SimpleToolWindowPanel implements TreeViewMode
       super.customizeCellRenderer(tree, value, selected, expanded, leaf, row, hasFocus);
       if (value instanceof CssTreeNode) {
         CssTreeNode cssTreeNode = (CssTreeNode)value;
-        setIcon(cssTreeNode.getIcon());
-        append(cssTreeNode.getText(), cssTreeNode.getTextAttributes());
+        setIcon(cssTreeNode.getPresentableIcon());
+        append(cssTreeNode.getPresentableText(), cssTreeNode.getPresentableTextAttributes());
       }
     }
   }
@@ -28,9 +28,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.Socket;
 import java.net.URLDecoder;
-import java.util.HashMap;
-import java.util.Locale;
-import java.util.Map;
+import java.util.*;
 
 public class HttpRequest implements Runnable {
   private static final Logger LOG = Logger.getInstance(HttpRequest.class.getName());
@@ -91,6 +89,9 @@ public class HttpRequest implements Runnable {
           String selector = params.get("selector");
           String href = params.get("href");
           String media = params.get("media");
+          String hash = params.get("hash");
+          String rule = params.get("rule");
+          String selectors = params.get("selectors");
           boolean deleted = Boolean.parseBoolean(params.get("deleted"));
           boolean important = Boolean.parseBoolean(params.get("important"));
 
@@ -98,6 +99,8 @@ public class HttpRequest implements Runnable {
           if (property != null && value != null && selector != null) {
             final FirebugChangesBean changesBean = new FirebugChangesBean(media != null ? media : EMPTY_STRING,
                                                                           href != null ? href : EMPTY_STRING,
+                                                                          hash != null ? hash : EMPTY_STRING,
+                                                                          rule != null ? rule : EMPTY_STRING,
                                                                           selector, property, value, deleted, important);
             if (LOG.isDebugEnabled()) {
               LOG.debug("Got CSS property change: " + changesBean);
@@ -108,7 +111,10 @@ public class HttpRequest implements Runnable {
             if (LOG.isDebugEnabled()) {
               LOG.debug("Got event: " + event);
             }
-            CssXFireConnector.getInstance().processEvent(new FirebugEvent(event));
+            CssXFireConnector.getInstance().processEvent(new FirebugEvent(event,
+                                                                          href != null ? href : EMPTY_STRING,
+                                                                          hash != null ? hash : EMPTY_STRING,
+                                                                          getSelectors(selectors)));
           }
 
           response = HttpResponse.createEmptyOkResponse();
@@ -125,6 +131,27 @@ public class HttpRequest implements Runnable {
     }
   }
 
+  /**
+   * Splits the newline separated selectors of an event.
+   *
+   * @param selectors the parameter value, or <tt>null</tt> if not present
+   * @return the distinct selectors, in order
+   */
+  @NotNull
+  private static List<String> getSelectors(String selectors) {
+    if (selectors == null) {
+      return Collections.emptyList();
+    }
+    Set<String> result = new LinkedHashSet<>();
+    for (String selector : StringUtil.split(selectors, "\n")) {
+      selector = selector.trim();
+      if (!selector.isEmpty()) {
+        result.add(selector);
+      }
+    }
+    return new ArrayList<>(result);
+  }
+
   private static Map<String, String> getQueryMap(String query) throws MalformedQueryException {
     Map<String, String> map = new HashMap<>();
     try {